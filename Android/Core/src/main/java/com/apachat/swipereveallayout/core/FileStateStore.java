@@ -0,0 +1,627 @@
+package com.apachat.swipereveallayout.core;
+
+import android.util.Log;
+
+import com.apachat.swipereveallayout.core.interfaces.StateStore;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class FileStateStore implements StateStore {
+  private static final String TAG = "FileStateStore";
+  private static final int MAGIC = 0x53524c31;
+  private static final int HEADER_SIZE = 4;
+  private static final int RECORD_OVERHEAD = 7;
+  private static final int FLUSH_THRESHOLD = 256;
+  private static final int COMPACT_MIN_RECORDS = 4096;
+  private static final long KEEP_ALIVE_SECONDS = 5;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private final File file;
+  private final ThreadPoolExecutor executor;
+
+  private final Map<String, Integer> written = new HashMap<>();
+  private Map<String, Integer> unflushed = new LinkedHashMap<>();
+  private Set<String> retained;
+  private int generation;
+
+  private volatile Index index;
+  private volatile Runnable loadListener;
+
+  public FileStateStore(File file) {
+    this.file = file;
+
+    executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+      new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        final Thread thread = new Thread(runnable, TAG);
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    executor.allowCoreThreadTimeOut(true);
+
+    final int loadGeneration = generation;
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        publishIndex(loadGeneration, loadIndex());
+
+        final Runnable listener = loadListener;
+        if (listener != null) {
+          listener.run();
+        }
+      }
+    });
+  }
+
+  @Override
+  public Integer get(String id) {
+    final Index current;
+
+    synchronized (this) {
+      final Integer state = written.get(id);
+      if (state != null) {
+        return state;
+      }
+
+      if (retained != null && !retained.contains(id)) {
+        return null;
+      }
+
+      current = index;
+    }
+
+    return current != null ? current.lookup(id) : null;
+  }
+
+  @Override
+  public boolean isLoaded() {
+    return index != null;
+  }
+
+  @Override
+  public void setLoadListener(Runnable listener) {
+    loadListener = listener;
+  }
+
+  @Override
+  public Collection<String> getOpenIds() {
+    return collectIds(false);
+  }
+
+  @Override
+  public Collection<String> getLockedIds() {
+    return collectIds(true);
+  }
+
+  @Override
+  public void put(String id, int state) {
+    final boolean shouldFlush;
+
+    synchronized (this) {
+      written.put(id, state);
+      unflushed.remove(id);
+      unflushed.put(id, state);
+      shouldFlush = unflushed.size() >= FLUSH_THRESHOLD;
+    }
+
+    if (shouldFlush) {
+      writeUnflushed();
+    }
+  }
+
+  @Override
+  public void retain(Collection<String> ids) {
+    final Set<String> keep = new HashSet<>(ids);
+    final int retainGeneration;
+
+    synchronized (this) {
+      written.keySet().retainAll(keep);
+      unflushed.keySet().retainAll(keep);
+      retained = keep;
+      retainGeneration = generation;
+    }
+
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        final Index current;
+        synchronized (FileStateStore.this) {
+          if (generation != retainGeneration || retained != keep) {
+            return;
+          }
+          current = index;
+        }
+
+        try {
+          replace(extendIndex(current, false), keep);
+          publishIndex(retainGeneration, loadIndex());
+        } catch (IOException e) {
+          Log.w(TAG, "Unable to prune " + file, e);
+        }
+
+        synchronized (FileStateStore.this) {
+          if (retained == keep) {
+            retained = null;
+          }
+        }
+      }
+    });
+  }
+
+  @Override
+  public void clear() {
+    synchronized (this) {
+      written.clear();
+      unflushed = new LinkedHashMap<>();
+      retained = null;
+      generation++;
+      index = Index.EMPTY;
+    }
+
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          replace(Index.EMPTY, null);
+        } catch (IOException e) {
+          Log.w(TAG, "Unable to clear " + file, e);
+        }
+      }
+    });
+  }
+
+  @Override
+  public void flush() {
+    final CountDownLatch done = writeUnflushed();
+
+    try {
+      (done != null ? done : barrier()).await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public void close() {
+    flush();
+    executor.shutdown();
+  }
+
+  void awaitWrites() throws InterruptedException {
+    barrier().await();
+  }
+
+  synchronized int bufferedCount() {
+    return written.size();
+  }
+
+  private CountDownLatch barrier() {
+    final CountDownLatch done = new CountDownLatch(1);
+
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        done.countDown();
+      }
+    });
+
+    return done;
+  }
+
+  private CountDownLatch writeUnflushed() {
+    final Map<String, Integer> records;
+    final int writeGeneration;
+
+    synchronized (this) {
+      if (unflushed.isEmpty()) {
+        return null;
+      }
+
+      records = unflushed;
+      unflushed = new LinkedHashMap<>();
+      writeGeneration = generation;
+    }
+
+    final CountDownLatch done = new CountDownLatch(1);
+
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          append(records);
+          publishIndex(writeGeneration, extendIndex(index, false));
+        } finally {
+          done.countDown();
+        }
+
+        final Index current = index;
+        if (current.size >= COMPACT_MIN_RECORDS && current.size > 2 * current.liveCount) {
+          try {
+            replace(current, null);
+            publishIndex(writeGeneration, loadIndex());
+          } catch (IOException e) {
+            Log.w(TAG, "Unable to compact " + file, e);
+          }
+        }
+      }
+    });
+
+    return done;
+  }
+
+  private Collection<String> collectIds(boolean locked) {
+    final Set<String> ids = new HashSet<>();
+
+    synchronized (this) {
+      final Index current = index;
+      if (current != null) {
+        current.collect(locked, ids);
+
+        if (retained != null) {
+          ids.retainAll(retained);
+        }
+      }
+
+      for (Map.Entry<String, Integer> entry : written.entrySet()) {
+        if (matches(entry.getValue(), locked)) {
+          ids.add(entry.getKey());
+        } else {
+          ids.remove(entry.getKey());
+        }
+      }
+    }
+
+    return ids;
+  }
+
+  private static boolean matches(int saved, boolean locked) {
+    if (locked) {
+      return ViewBinder.isLockedState(saved);
+    }
+
+    final int state = ViewBinder.stateOf(saved);
+    return state == SwipeLayout.STATE_OPEN || state == SwipeLayout.STATE_OPENING;
+  }
+
+  private void publishIndex(int expectedGeneration, Index built) {
+    synchronized (this) {
+      if (generation != expectedGeneration) {
+        return;
+      }
+
+      index = built;
+
+      final Iterator<Map.Entry<String, Integer>> iterator = written.entrySet().iterator();
+      while (iterator.hasNext()) {
+        final Map.Entry<String, Integer> entry = iterator.next();
+        if (!unflushed.containsKey(entry.getKey()) && entry.getValue().equals(built.lookup(entry.getKey()))) {
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  private Index loadIndex() {
+    if (!file.exists() || file.length() < HEADER_SIZE) {
+      return Index.EMPTY;
+    }
+
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      if (raf.readInt() != MAGIC) {
+        replace(Index.EMPTY, null);
+        return Index.EMPTY;
+      }
+    } catch (IOException e) {
+      Log.w(TAG, "Unable to read " + file, e);
+      return Index.EMPTY;
+    }
+
+    return extendIndex(Index.EMPTY, true);
+  }
+
+  private Index extendIndex(Index base, boolean truncateTail) {
+    try (RandomAccessFile raf = new RandomAccessFile(file, truncateTail ? "rw" : "r")) {
+      final long length = raf.length();
+      if (length <= base.end) {
+        return base;
+      }
+
+      MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+      if (buffer.getInt(0) != MAGIC) {
+        return base;
+      }
+
+      long[] added = new long[64];
+      int count = 0;
+      int position = base.end;
+
+      while (position + RECORD_OVERHEAD <= length) {
+        final int idLength = buffer.getShort(position + 4) & 0xffff;
+        final int next = position + RECORD_OVERHEAD + idLength;
+        if (next > length) {
+          break;
+        }
+
+        if (count == added.length) {
+          added = Arrays.copyOf(added, count * 2);
+        }
+        added[count++] = entry(buffer.getInt(position), position);
+        position = next;
+      }
+
+      if (truncateTail && position < length) {
+        raf.setLength(position);
+        buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, position);
+      }
+
+      Arrays.sort(added, 0, count);
+      return Index.merge(buffer, base, added, count, position);
+    } catch (IOException e) {
+      Log.w(TAG, "Unable to index " + file, e);
+      return base;
+    }
+  }
+
+  private void append(Map<String, Integer> records) {
+    final long start = file.exists() ? file.length() : 0;
+
+    try {
+      writeRecords(file, records);
+    } catch (IOException e) {
+      Log.w(TAG, "Unable to write " + records.size() + " states to " + file, e);
+
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.setLength(start);
+      } catch (IOException ignored) {
+        // The partial tail is dropped when the log is indexed again.
+      }
+    }
+  }
+
+  private void replace(Index source, Set<String> keep) throws IOException {
+    final File tmp = new File(file.getPath() + ".tmp");
+
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+      out.writeInt(MAGIC);
+      source.writeLive(out, keep);
+    }
+
+    if (!tmp.renameTo(file)) {
+      tmp.delete();
+      throw new IOException("Unable to rename " + tmp + " to " + file);
+    }
+  }
+
+  private static void writeRecords(File file, Map<String, Integer> records) throws IOException {
+    final boolean writeHeader = !file.exists() || file.length() < HEADER_SIZE;
+
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+      new FileOutputStream(file, !writeHeader)))) {
+      if (writeHeader) {
+        out.writeInt(MAGIC);
+      }
+
+      for (Map.Entry<String, Integer> entry : records.entrySet()) {
+        final byte[] idBytes = entry.getKey().getBytes(UTF_8);
+        if (idBytes.length > 0xffff) {
+          continue;
+        }
+
+        out.writeInt(entry.getKey().hashCode());
+        out.writeShort(idBytes.length);
+        out.write(idBytes);
+        out.writeByte(entry.getValue());
+      }
+    }
+  }
+
+  private static long entry(int hash, int offset) {
+    return ((long) hash << 32) | (offset & 0xffffffffL);
+  }
+
+  private static final class Index {
+    static final Index EMPTY = new Index(null, new long[0], 0, new int[0], 0, HEADER_SIZE);
+
+    final MappedByteBuffer buffer;
+    final long[] entries;
+    final int size;
+    final int[] live;
+    final int liveCount;
+    final int end;
+
+    Index(MappedByteBuffer buffer, long[] entries, int size, int[] live, int liveCount, int end) {
+      this.buffer = buffer;
+      this.entries = entries;
+      this.size = size;
+      this.live = live;
+      this.liveCount = liveCount;
+      this.end = end;
+    }
+
+    static Index merge(MappedByteBuffer buffer, Index base, long[] added, int count, int end) {
+      final long[] entries = new long[base.size + count];
+      int i = 0;
+      int j = 0;
+      int k = 0;
+
+      while (i < base.size || j < count) {
+        if (j == count || (i < base.size && base.entries[i] < added[j])) {
+          entries[k++] = base.entries[i++];
+        } else {
+          entries[k++] = added[j++];
+        }
+      }
+
+      int[] live = new int[Math.max(16, base.liveCount + count)];
+      int liveCount = 0;
+      final int[] seen = new int[8];
+
+      int groupEnd = entries.length;
+      while (groupEnd > 0) {
+        final int hash = (int) (entries[groupEnd - 1] >> 32);
+        int groupStart = groupEnd - 1;
+        while (groupStart > 0 && (int) (entries[groupStart - 1] >> 32) == hash) {
+          groupStart--;
+        }
+
+        int seenCount = 0;
+        int[] seenIds = seen;
+        for (int index = groupEnd - 1; index >= groupStart; index--) {
+          final int offset = (int) entries[index];
+
+          boolean superseded = false;
+          for (int s = 0; s < seenCount && !superseded; s++) {
+            superseded = sameId(buffer, offset, seenIds[s]);
+          }
+
+          if (!superseded) {
+            if (seenCount == seenIds.length) {
+              seenIds = Arrays.copyOf(seenIds, seenCount * 2);
+            }
+            seenIds[seenCount++] = offset;
+            live[liveCount++] = offset;
+          }
+        }
+
+        groupEnd = groupStart;
+      }
+
+      Arrays.sort(live, 0, liveCount);
+      return new Index(buffer, entries, entries.length, live, liveCount, end);
+    }
+
+    Integer lookup(String id) {
+      if (size == 0) {
+        return null;
+      }
+
+      final int hash = id.hashCode();
+      int low = 0;
+      int high = size - 1;
+      int last = -1;
+
+      while (low <= high) {
+        final int mid = (low + high) >>> 1;
+        final int midHash = (int) (entries[mid] >> 32);
+
+        if (midHash <= hash) {
+          if (midHash == hash) {
+            last = mid;
+          }
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+
+      if (last < 0) {
+        return null;
+      }
+
+      final byte[] idBytes = id.getBytes(UTF_8);
+
+      for (int i = last; i >= 0 && (int) (entries[i] >> 32) == hash; i--) {
+        final int offset = (int) entries[i];
+        final int length = buffer.getShort(offset + 4) & 0xffff;
+
+        if (length == idBytes.length && matches(offset + 6, idBytes)) {
+          return stateAt(offset);
+        }
+      }
+
+      return null;
+    }
+
+    void collect(boolean locked, Set<String> out) {
+      byte[] idBytes = new byte[64];
+
+      for (int i = 0; i < liveCount; i++) {
+        final int offset = live[i];
+        if (!FileStateStore.matches(stateAt(offset), locked)) {
+          continue;
+        }
+
+        final int length = buffer.getShort(offset + 4) & 0xffff;
+        if (length > idBytes.length) {
+          idBytes = new byte[length];
+        }
+
+        for (int b = 0; b < length; b++) {
+          idBytes[b] = buffer.get(offset + 6 + b);
+        }
+        out.add(new String(idBytes, 0, length, UTF_8));
+      }
+    }
+
+    void writeLive(DataOutputStream out, Set<String> keep) throws IOException {
+      byte[] record = new byte[64];
+
+      for (int i = 0; i < liveCount; i++) {
+        final int offset = live[i];
+        final int length = RECORD_OVERHEAD + (buffer.getShort(offset + 4) & 0xffff);
+        if (length > record.length) {
+          record = new byte[length];
+        }
+
+        for (int b = 0; b < length; b++) {
+          record[b] = buffer.get(offset + b);
+        }
+
+        if (keep == null || keep.contains(new String(record, 6, length - RECORD_OVERHEAD, UTF_8))) {
+          out.write(record, 0, length);
+        }
+      }
+    }
+
+    private int stateAt(int offset) {
+      return buffer.get(offset + 6 + (buffer.getShort(offset + 4) & 0xffff)) & 0xff;
+    }
+
+    private boolean matches(int position, byte[] bytes) {
+      for (int i = 0; i < bytes.length; i++) {
+        if (buffer.get(position + i) != bytes[i]) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    private static boolean sameId(MappedByteBuffer buffer, int first, int second) {
+      final int length = buffer.getShort(first + 4) & 0xffff;
+      if (length != (buffer.getShort(second + 4) & 0xffff)) {
+        return false;
+      }
+
+      for (int i = 0; i < length; i++) {
+        if (buffer.get(first + 6 + i) != buffer.get(second + 6 + i)) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  }
+}
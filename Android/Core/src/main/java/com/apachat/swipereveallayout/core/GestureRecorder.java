@@ -0,0 +1,67 @@
+package com.apachat.swipereveallayout.core;
+
+import android.view.MotionEvent;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class GestureRecorder {
+  static final int MAGIC = 0x53524c47;
+  static final int VERSION = 2;
+
+  static final int SOURCE_INTERCEPT = 0;
+  static final int SOURCE_TOUCH = 1;
+
+  private final DataOutputStream out;
+  private long lastEventTime = -1;
+  private boolean failed = false;
+
+  public GestureRecorder(OutputStream outputStream) {
+    out = new DataOutputStream(new BufferedOutputStream(outputStream));
+
+    try {
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+    } catch (IOException e) {
+      failed = true;
+    }
+  }
+
+  void record(MotionEvent ev, int source) {
+    if (failed) {
+      return;
+    }
+
+    final long eventTime = ev.getEventTime();
+    final int delta = lastEventTime < 0 ? 0 : (int) (eventTime - lastEventTime);
+    lastEventTime = eventTime;
+
+    try {
+      final int pointerCount = ev.getPointerCount();
+
+      out.writeByte(source);
+      out.writeByte(ev.getActionMasked());
+      out.writeByte(ev.getActionIndex());
+      out.writeByte(pointerCount);
+      out.writeShort(Math.min(delta, Short.MAX_VALUE));
+
+      for (int index = 0; index < pointerCount; index++) {
+        out.writeByte(ev.getPointerId(index));
+        out.writeFloat(ev.getX(index));
+        out.writeFloat(ev.getY(index));
+      }
+    } catch (IOException e) {
+      failed = true;
+    }
+  }
+
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  public void close() throws IOException {
+    out.close();
+  }
+}
@@ -0,0 +1,22 @@
+package com.apachat.swipereveallayout.core;
+
+public final class PrefetchToken {
+  private final int dragEdge;
+  private volatile boolean cancelled = false;
+
+  PrefetchToken(int dragEdge) {
+    this.dragEdge = dragEdge;
+  }
+
+  public int getDragEdge() {
+    return dragEdge;
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  void cancel() {
+    cancelled = true;
+  }
+}
@@ -0,0 +1,70 @@
+package com.apachat.swipereveallayout.core;
+
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class SettleDriver implements Choreographer.FrameCallback {
+  private final List<SwipeLayout> settling = new ArrayList<>();
+  private boolean scheduled = false;
+
+  private int maxConcurrentSettles = Integer.MAX_VALUE;
+  private boolean jumpOffscreenSettles = false;
+
+  void setMaxConcurrentSettles(int maxConcurrentSettles) {
+    this.maxConcurrentSettles = maxConcurrentSettles;
+  }
+
+  void setJumpOffscreenSettles(boolean jumpOffscreenSettles) {
+    this.jumpOffscreenSettles = jumpOffscreenSettles;
+  }
+
+  boolean admit(SwipeLayout layout) {
+    if (settling.contains(layout)) {
+      return true;
+    }
+
+    if (settling.size() >= maxConcurrentSettles) {
+      return false;
+    }
+
+    if (jumpOffscreenSettles && !ViewBinder.isOnScreen(layout)) {
+      return false;
+    }
+
+    settling.add(layout);
+
+    if (!scheduled) {
+      scheduled = true;
+      Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    return true;
+  }
+
+  void remove(SwipeLayout layout) {
+    settling.remove(layout);
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    scheduled = false;
+
+    for (int index = settling.size() - 1; index >= 0; index--) {
+      if (index >= settling.size()) {
+        continue;
+      }
+
+      final SwipeLayout layout = settling.get(index);
+      if (!layout.continueSettling()) {
+        settling.remove(layout);
+      }
+    }
+
+    if (!settling.isEmpty()) {
+      scheduled = true;
+      Choreographer.getInstance().postFrameCallback(this);
+    }
+  }
+}
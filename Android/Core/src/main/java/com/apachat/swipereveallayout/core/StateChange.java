@@ -0,0 +1,27 @@
+package com.apachat.swipereveallayout.core;
+
+public final class StateChange {
+  public static final int STATE_NONE = -1;
+
+  private final String id;
+  private final int oldState;
+  private final int newState;
+
+  StateChange(String id, int oldState, int newState) {
+    this.id = id;
+    this.oldState = oldState;
+    this.newState = newState;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public int getOldState() {
+    return oldState;
+  }
+
+  public int getNewState() {
+    return newState;
+  }
+}
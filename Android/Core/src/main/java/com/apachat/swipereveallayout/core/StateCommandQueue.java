@@ -0,0 +1,157 @@
+package com.apachat.swipereveallayout.core;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+final class StateCommandQueue implements Choreographer.FrameCallback {
+  private static final int COMMAND_OPEN = 0;
+  private static final int COMMAND_CLOSE = 1;
+  private static final int COMMAND_LOCK = 2;
+  private static final int COMMAND_UNLOCK = 3;
+  private static final int COMMAND_CLOSE_ALL = 4;
+  private static final int COMMAND_OPEN_ONLY_ONE = 5;
+  private static final int COMMAND_STORE_LOADED = 6;
+
+  private final ViewBinder binder;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final ConcurrentLinkedQueue<Command> commands = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+  private final Runnable scheduleFrame = new Runnable() {
+    @Override
+    public void run() {
+      Choreographer.getInstance().postFrameCallback(StateCommandQueue.this);
+    }
+  };
+
+  StateCommandQueue(ViewBinder binder) {
+    this.binder = binder;
+  }
+
+  static boolean isMainThread() {
+    return Looper.myLooper() == Looper.getMainLooper();
+  }
+
+  void postOpen(String id) {
+    post(new Command(COMMAND_OPEN, id));
+  }
+
+  void postClose(String id) {
+    post(new Command(COMMAND_CLOSE, id));
+  }
+
+  void postLock(String id, boolean lock) {
+    post(new Command(lock ? COMMAND_LOCK : COMMAND_UNLOCK, id));
+  }
+
+  void postCloseAll() {
+    post(new Command(COMMAND_CLOSE_ALL, null));
+  }
+
+  void postEnforceOpenOnlyOne() {
+    post(new Command(COMMAND_OPEN_ONLY_ONE, null));
+  }
+
+  void postStoreLoaded() {
+    post(new Command(COMMAND_STORE_LOADED, null));
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    scheduled.set(false);
+    drain();
+  }
+
+  private void post(Command command) {
+    commands.offer(command);
+
+    if (scheduled.compareAndSet(false, true)) {
+      mainHandler.post(scheduleFrame);
+    }
+  }
+
+  private void drain() {
+    boolean closeAll = false;
+    boolean openOnlyOne = false;
+    boolean storeLoaded = false;
+    final Map<String, Boolean> openStates = new LinkedHashMap<>();
+    final Map<String, Boolean> lockStates = new LinkedHashMap<>();
+
+    Command command;
+    while ((command = commands.poll()) != null) {
+      switch (command.type) {
+        case COMMAND_OPEN:
+        case COMMAND_CLOSE:
+          openStates.remove(command.id);
+          openStates.put(command.id, command.type == COMMAND_OPEN);
+          break;
+
+        case COMMAND_LOCK:
+        case COMMAND_UNLOCK:
+          lockStates.remove(command.id);
+          lockStates.put(command.id, command.type == COMMAND_LOCK);
+          break;
+
+        case COMMAND_CLOSE_ALL:
+          closeAll = true;
+          openStates.clear();
+          break;
+
+        case COMMAND_OPEN_ONLY_ONE:
+          openOnlyOne = true;
+          break;
+
+        case COMMAND_STORE_LOADED:
+          storeLoaded = true;
+          break;
+      }
+    }
+
+    if (storeLoaded) {
+      binder.applyStoredStates();
+    }
+
+    if (closeAll) {
+      binder.closeAll();
+    }
+
+    if (openOnlyOne) {
+      binder.enforceOpenOnlyOne();
+    }
+
+    binder.closeLayouts(keysWithValue(openStates, false));
+    binder.openLayouts(keysWithValue(openStates, true));
+    binder.setLocked(keysWithValue(lockStates, true), true);
+    binder.setLocked(keysWithValue(lockStates, false), false);
+  }
+
+  private static List<String> keysWithValue(Map<String, Boolean> map, boolean value) {
+    final List<String> keys = new ArrayList<>();
+
+    for (Map.Entry<String, Boolean> entry : map.entrySet()) {
+      if (entry.getValue() == value) {
+        keys.add(entry.getKey());
+      }
+    }
+
+    return keys;
+  }
+
+  private static final class Command {
+    final int type;
+    final String id;
+
+    Command(int type, String id) {
+      this.type = type;
+      this.id = id;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.apachat.swipereveallayout.core;
+
+import android.view.Choreographer;
+
+import com.apachat.swipereveallayout.core.interfaces.StateObserver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class StateDiffDispatcher implements Choreographer.FrameCallback {
+  private final List<StateObserver> observers = new ArrayList<>();
+  private final Map<String, int[]> pending = new LinkedHashMap<>();
+  private boolean scheduled = false;
+
+  void addObserver(StateObserver observer) {
+    if (observer == null || observers.contains(observer))
+      return;
+
+    observers.add(observer);
+  }
+
+  void removeObserver(StateObserver observer) {
+    observers.remove(observer);
+
+    if (observers.isEmpty()) {
+      pending.clear();
+      unschedule();
+    }
+  }
+
+  boolean hasObservers() {
+    return !observers.isEmpty();
+  }
+
+  void record(String id, int oldState, int newState) {
+    if (observers.isEmpty() || oldState == newState)
+      return;
+
+    final int[] change = pending.get(id);
+    if (change != null) {
+      change[1] = newState;
+    } else {
+      pending.put(id, new int[]{oldState, newState});
+    }
+
+    if (!scheduled) {
+      scheduled = true;
+      Choreographer.getInstance().postFrameCallback(this);
+    }
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    scheduled = false;
+
+    if (pending.isEmpty())
+      return;
+
+    final List<StateChange> changes = new ArrayList<>(pending.size());
+    for (Map.Entry<String, int[]> entry : pending.entrySet()) {
+      final int[] change = entry.getValue();
+      if (change[0] != change[1]) {
+        changes.add(new StateChange(entry.getKey(), change[0], change[1]));
+      }
+    }
+    pending.clear();
+
+    if (changes.isEmpty())
+      return;
+
+    final List<StateChange> unmodifiable = Collections.unmodifiableList(changes);
+    for (StateObserver observer : new ArrayList<>(observers)) {
+      observer.onStatesChanged(unmodifiable);
+    }
+  }
+
+  private void unschedule() {
+    if (!scheduled)
+      return;
+
+    scheduled = false;
+    Choreographer.getInstance().removeFrameCallback(this);
+  }
+}
@@ -4,6 +4,7 @@ import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
 import android.graphics.Rect;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
@@ -13,15 +14,21 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.core.view.GestureDetectorCompat;
+import androidx.core.view.NestedScrollingChild3;
+import androidx.core.view.NestedScrollingChildHelper;
 import androidx.core.view.ViewCompat;
 import androidx.customview.widget.ViewDragHelper;
 
 import com.apachat.swipereveallayout.core.interfaces.DragStateChanged;
+import com.apachat.swipereveallayout.core.interfaces.Prefetch;
 import com.apachat.swipereveallayout.core.interfaces.Swipe;
+import com.apachat.swipereveallayout.core.interfaces.SwipeStage;
 
 import org.jetbrains.annotations.NotNull;
 
-public class SwipeLayout extends ViewGroup {
+import java.util.concurrent.Executor;
+
+public class SwipeLayout extends ViewGroup implements NestedScrollingChild3 {
   protected static final int STATE_CLOSE = 0;
   protected static final int STATE_CLOSING = 1;
   protected static final int STATE_OPEN = 2;
@@ -30,6 +37,7 @@ public class SwipeLayout extends ViewGroup {
 
   private static final int DEFAULT_MIN_FLING_VELOCITY = 300;
   private static final int DEFAULT_MIN_DIST_REQUEST_DISALLOW_PARENT = 1;
+  private static final float DEFAULT_FULL_SWIPE_THRESHOLD = 0.5f;
 
   public static final int DRAG_EDGE_LEFT = 0x1;
   public static final int DRAG_EDGE_RIGHT = 0x1 << 1;
@@ -40,10 +48,26 @@ public class SwipeLayout extends ViewGroup {
 
   public static final int MODE_SAME_LEVEL = 1;
 
+  public static final int LAYER_POLICY_NONE = 0;
+
+  public static final int LAYER_POLICY_HARDWARE = 1;
+
+  public static final int STAGE_CLOSED = 0;
+
+  public static final int STAGE_OPEN = 1;
+
+  public static final int STAGE_FULL = 2;
+
+  public static final int PREFETCH_ON_DRAG = 0;
+
+  public static final int PREFETCH_ON_DOWN = 1;
+
   private View mMainView;
 
   private View mSecondaryView;
 
+  private final View[] mSecondaryViews = new View[4];
+
   private final Rect mRectMainClose = new Rect();
 
   private final Rect mRectMainOpen = new Rect();
@@ -52,6 +76,18 @@ public class SwipeLayout extends ViewGroup {
 
   private final Rect mRectSecOpen = new Rect();
 
+  private final int[] mAnchors = new int[3];
+
+  private final int[] mStageThresholds = new int[3];
+
+  private int mAnchorCount = 2;
+
+  private final Rect mRectRevealed = new Rect();
+
+  private final Rect mRectDirty = new Rect();
+
+  private final Rect mRectChild = new Rect();
+
   private int mMinDistRequestDisallowParent = 0;
 
   private boolean mIsOpenBeforeInit = false;
@@ -63,54 +99,109 @@ public class SwipeLayout extends ViewGroup {
   private int mState = STATE_CLOSE;
   private int mMode = MODE_NORMAL;
 
+  private int mLayerPolicy = LAYER_POLICY_NONE;
+  private boolean mLayersPromoted = false;
+  private int mMainLayerType = LAYER_TYPE_NONE;
+  private int mSecLayerType = LAYER_TYPE_NONE;
+
+  private boolean mFullSwipeEnabled = false;
+  private float mFullSwipeThreshold = DEFAULT_FULL_SWIPE_THRESHOLD;
+  private int mStage = STAGE_CLOSED;
+
   private int mLastMainLeft = 0;
   private int mLastMainTop = 0;
 
   private int mDragEdge = DRAG_EDGE_LEFT;
+  private int mDragEdges = DRAG_EDGE_LEFT;
 
   private float mDragDist = 0;
   private float mPrevX = -1;
   private float mPrevY = -1;
+  private float mEdgeTouchX = -1;
+  private float mEdgeTouchY = -1;
 
   private ViewDragHelper mDragHelper;
   private GestureDetectorCompat mGestureDetector;
+  private NestedScrollingChildHelper mNestedScrollingChildHelper;
+
+  private final int[] mNestedConsumed = new int[2];
+  private boolean mNestedScrollNegotiated = false;
+  private int mNestedOffsetX = 0;
+  private int mNestedOffsetY = 0;
 
   private DragStateChanged mDragStateChanged;
   private Swipe mSwipe;
+  private SwipeStage mSwipeStage;
+  private GestureRecorder mGestureRecorder;
+  private SettleDriver mSettleDriver;
+
+  private Prefetch mPrefetch;
+  private Executor mPrefetchExecutor;
+  private int mPrefetchTrigger = PREFETCH_ON_DRAG;
+  private boolean mPrefetchArmed = false;
+  private long mPrefetchDownTime = -1;
+
+  private SwipeMetrics mSwipeMetrics = null;
+
+  private boolean mDragTracked = false;
+
+  private int mDragStartStage = STAGE_CLOSED;
+
+  private int mDragReleaseStage = -1;
+  private PrefetchToken mPrefetchToken;
 
   private int mOnLayoutCount = 0;
 
   public SwipeLayout(Context context) {
-    super(context);
-    init(context, null);
+    this(context, null);
   }
 
   public SwipeLayout(Context context, AttributeSet attrs) {
-    super(context, attrs);
-    init(context, attrs);
+    this(context, attrs, 0);
   }
 
   public SwipeLayout(Context context, AttributeSet attrs, int defStyleAttr) {
     super(context, attrs, defStyleAttr);
+    init(context, attrs, defStyleAttr);
   }
 
   @SuppressLint("ClickableViewAccessibility")
   @Override
   public boolean onTouchEvent(MotionEvent event) {
+    if (mGestureRecorder != null) {
+      mGestureRecorder.record(event, GestureRecorder.SOURCE_TOUCH);
+    }
+
+    ensureDragHelper();
+    chooseDragEdge(event);
+    accumulateDragDist(event);
     mGestureDetector.onTouchEvent(event);
-    mDragHelper.processTouchEvent(event);
+    processDragEvent(event);
+
+    mPrevX = event.getX();
+    mPrevY = event.getY();
+
+    updatePrefetch(event);
+    updateSwipeMetrics(event);
+    stopNestedScrollIfGestureEnded(event);
     return true;
   }
 
   @Override
   public boolean onInterceptTouchEvent(MotionEvent ev) {
+    if (mGestureRecorder != null) {
+      mGestureRecorder.record(ev, GestureRecorder.SOURCE_INTERCEPT);
+    }
+
     if (isDragLocked()) {
       return super.onInterceptTouchEvent(ev);
     }
 
-    mDragHelper.processTouchEvent(ev);
-    mGestureDetector.onTouchEvent(ev);
+    ensureDragHelper();
+    chooseDragEdge(ev);
     accumulateDragDist(ev);
+    processDragEvent(ev);
+    mGestureDetector.onTouchEvent(ev);
 
     boolean couldBecomeClick = couldBecomeClick(ev);
     boolean settling = mDragHelper.getViewDragState() == ViewDragHelper.STATE_SETTLING;
@@ -120,112 +211,155 @@ public class SwipeLayout extends ViewGroup {
     mPrevX = ev.getX();
     mPrevY = ev.getY();
 
+    updatePrefetch(ev);
+    updateSwipeMetrics(ev);
+    stopNestedScrollIfGestureEnded(ev);
+
     return !couldBecomeClick && (settling || idleAfterScrolled);
   }
 
   @Override
-  protected void onFinishInflate() {
-    super.onFinishInflate();
+  protected void onDetachedFromWindow() {
+    super.onDetachedFromWindow();
+    mNestedScrollingChildHelper.onDetachedFromWindow();
+  }
 
-    if (getChildCount() >= 2) {
-      mSecondaryView = getChildAt(0);
-      mMainView = getChildAt(1);
-    } else if (getChildCount() == 1) {
-      mMainView = getChildAt(0);
-    }
+  @Override
+  public void setNestedScrollingEnabled(boolean enabled) {
+    mNestedScrollingChildHelper.setNestedScrollingEnabled(enabled);
   }
 
   @Override
-  protected void onLayout(boolean changed, int l, int t, int r, int b) {
-    mAborted = false;
+  public boolean isNestedScrollingEnabled() {
+    return mNestedScrollingChildHelper.isNestedScrollingEnabled();
+  }
 
-    for (int index = 0; index < getChildCount(); index++) {
-      final View child = getChildAt(index);
+  @Override
+  public boolean startNestedScroll(int axes) {
+    return mNestedScrollingChildHelper.startNestedScroll(axes);
+  }
 
-      int left, right, top, bottom;
-      left = right = top = bottom = 0;
+  @Override
+  public boolean startNestedScroll(int axes, int type) {
+    return mNestedScrollingChildHelper.startNestedScroll(axes, type);
+  }
 
-      final int minLeft = getPaddingLeft();
-      final int maxRight = Math.max(r - getPaddingRight() - l, 0);
-      final int minTop = getPaddingTop();
-      final int maxBottom = Math.max(b - getPaddingBottom() - t, 0);
+  @Override
+  public void stopNestedScroll() {
+    mNestedScrollingChildHelper.stopNestedScroll();
+  }
 
-      int measuredChildHeight = child.getMeasuredHeight();
-      int measuredChildWidth = child.getMeasuredWidth();
+  @Override
+  public void stopNestedScroll(int type) {
+    mNestedScrollingChildHelper.stopNestedScroll(type);
+  }
 
-      final LayoutParams childParams = child.getLayoutParams();
-      boolean matchParentHeight = false;
-      boolean matchParentWidth = false;
+  @Override
+  public boolean hasNestedScrollingParent() {
+    return mNestedScrollingChildHelper.hasNestedScrollingParent();
+  }
 
-      if (childParams != null) {
-        matchParentHeight = (childParams.height == LayoutParams.FILL_PARENT);
-        matchParentWidth = (childParams.width == LayoutParams.FILL_PARENT);
-      }
+  @Override
+  public boolean hasNestedScrollingParent(int type) {
+    return mNestedScrollingChildHelper.hasNestedScrollingParent(type);
+  }
 
-      if (matchParentHeight) {
-        measuredChildHeight = maxBottom - minTop;
-        childParams.height = measuredChildHeight;
-      }
+  @Override
+  public boolean dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed,
+                                      int[] offsetInWindow) {
+    return mNestedScrollingChildHelper.dispatchNestedScroll(
+      dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow
+    );
+  }
 
-      if (matchParentWidth) {
-        measuredChildWidth = maxRight - minLeft;
-        childParams.width = measuredChildWidth;
-      }
+  @Override
+  public boolean dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed,
+                                      int[] offsetInWindow, int type) {
+    return mNestedScrollingChildHelper.dispatchNestedScroll(
+      dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow, type
+    );
+  }
 
-      switch (mDragEdge) {
-        case DRAG_EDGE_RIGHT:
-          left = Math.max(r - measuredChildWidth - getPaddingRight() - l, minLeft);
-          top = Math.min(getPaddingTop(), maxBottom);
-          right = Math.max(r - getPaddingRight() - l, minLeft);
-          bottom = Math.min(measuredChildHeight + getPaddingTop(), maxBottom);
-          break;
+  @Override
+  public void dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed,
+                                   int[] offsetInWindow, int type, @NotNull int[] consumed) {
+    mNestedScrollingChildHelper.dispatchNestedScroll(
+      dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow, type, consumed
+    );
+  }
 
-        case DRAG_EDGE_TOP:
-        case DRAG_EDGE_LEFT:
-          left = Math.min(getPaddingLeft(), maxRight);
-          top = Math.min(getPaddingTop(), maxBottom);
-          right = Math.min(measuredChildWidth + getPaddingLeft(), maxRight);
-          bottom = Math.min(measuredChildHeight + getPaddingTop(), maxBottom);
-          break;
+  @Override
+  public boolean dispatchNestedPreScroll(int dx, int dy, int[] consumed, int[] offsetInWindow) {
+    return mNestedScrollingChildHelper.dispatchNestedPreScroll(dx, dy, consumed, offsetInWindow);
+  }
 
-        case DRAG_EDGE_BOTTOM:
-          left = Math.min(getPaddingLeft(), maxRight);
-          top = Math.max(b - measuredChildHeight - getPaddingBottom() - t, minTop);
-          right = Math.min(measuredChildWidth + getPaddingLeft(), maxRight);
-          bottom = Math.max(b - getPaddingBottom() - t, minTop);
-          break;
-      }
+  @Override
+  public boolean dispatchNestedPreScroll(int dx, int dy, int[] consumed, int[] offsetInWindow, int type) {
+    return mNestedScrollingChildHelper.dispatchNestedPreScroll(dx, dy, consumed, offsetInWindow, type);
+  }
 
-      child.layout(left, top, right, bottom);
-    }
+  @Override
+  public boolean dispatchNestedFling(float velocityX, float velocityY, boolean consumed) {
+    return mNestedScrollingChildHelper.dispatchNestedFling(velocityX, velocityY, consumed);
+  }
 
-    if (mMode == MODE_SAME_LEVEL) {
-      switch (mDragEdge) {
-        case DRAG_EDGE_LEFT:
-          mSecondaryView.offsetLeftAndRight(-mSecondaryView.getWidth());
-          break;
+  @Override
+  public boolean dispatchNestedPreFling(float velocityX, float velocityY) {
+    return mNestedScrollingChildHelper.dispatchNestedPreFling(velocityX, velocityY);
+  }
 
-        case DRAG_EDGE_RIGHT:
-          mSecondaryView.offsetLeftAndRight(mSecondaryView.getWidth());
-          break;
+  @Override
+  public void onViewAdded(View child) {
+    super.onViewAdded(child);
+    assignChildren();
+  }
 
-        case DRAG_EDGE_TOP:
-          mSecondaryView.offsetTopAndBottom(-mSecondaryView.getHeight());
-          break;
+  @Override
+  public void onViewRemoved(View child) {
+    super.onViewRemoved(child);
+    assignChildren();
+  }
 
-        case DRAG_EDGE_BOTTOM:
-          mSecondaryView.offsetTopAndBottom(mSecondaryView.getHeight());
+  @Override
+  protected void onLayout(boolean changed, int l, int t, int r, int b) {
+    mAborted = false;
+
+    final int mainEdge = Integer.lowestOneBit(mDragEdges);
+
+    final int minLeft = getPaddingLeft();
+    final int maxRight = Math.max(r - getPaddingRight() - l, 0);
+    final int minTop = getPaddingTop();
+    final int maxBottom = Math.max(b - getPaddingBottom() - t, 0);
+
+    final int mainWidth = getLayoutWidth(mMainView, maxRight - minLeft);
+    final int mainHeight = getLayoutHeight(mMainView, maxBottom - minTop);
+    final int secWidth = getLayoutWidth(mSecondaryView, maxRight - minLeft);
+    final int secHeight = getLayoutHeight(mSecondaryView, maxBottom - minTop);
+
+    getChildRect(mMainView, mainEdge, mainWidth, mainHeight, l, t, r, b, mRectMainClose);
+    getChildRect(mSecondaryView, getSecondaryEdge(mSecondaryView, mainEdge), secWidth, secHeight, l, t, r, b, mRectSecClose);
+    initOpenRects();
+
+    for (int index = 0; index < getChildCount(); index++) {
+      final View child = getChildAt(index);
+      if (child == mMainView || child == mSecondaryView) {
+        continue;
       }
-    }
 
-    initRects();
+      final int childEdge = getSecondaryEdge(child, mainEdge);
+      final int width = getLayoutWidth(child, maxRight - minLeft);
+      final int height = getLayoutHeight(child, maxBottom - minTop);
 
-    if (mIsOpenBeforeInit) {
-      open(false);
-    } else {
-      close(false);
+      getChildRect(child, childEdge, width, height, l, t, r, b, mRectChild);
+      child.layout(mRectChild.left, mRectChild.top, mRectChild.right, mRectChild.bottom);
     }
 
+    abortDragHelper();
+    mState = mIsOpenBeforeInit ? STATE_OPEN : STATE_CLOSE;
+    mStage = mIsOpenBeforeInit ? STAGE_OPEN : STAGE_CLOSED;
+    updateLayers();
+    layoutToState();
+
     mLastMainLeft = mMainView.getLeft();
     mLastMainTop = mMainView.getTop();
 
@@ -308,10 +442,53 @@ public class SwipeLayout extends ViewGroup {
     setMeasuredDimension(desiredWidth, desiredHeight);
   }
 
+  @Override
+  protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+    if (child != mSecondaryView || mMainView == null) {
+      if (child != mMainView && getSecondaryEdge(child, 0) != 0) {
+        return false;
+      }
+
+      return super.drawChild(canvas, child, drawingTime);
+    }
+
+    if (mState == STATE_CLOSE) {
+      return false;
+    }
+
+    getRevealedRect(mRectRevealed, mMainView.getLeft(), mMainView.getTop());
+    if (mRectRevealed.isEmpty()) {
+      return false;
+    }
+
+    final int saveCount = canvas.save();
+    canvas.clipRect(mRectRevealed);
+    final boolean result = super.drawChild(canvas, child, drawingTime);
+    canvas.restoreToCount(saveCount);
+
+    return result;
+  }
+
   @Override
   public void computeScroll() {
+    if (mSettleDriver != null || mDragHelper == null) {
+      return;
+    }
+
     if (mDragHelper.continueSettling(true)) {
-      ViewCompat.postInvalidateOnAnimation(this);
+      getRevealedRect(mRectRevealed, mMainView.getLeft(), mMainView.getTop());
+
+      if (mRectRevealed.isEmpty()) {
+        ViewCompat.postInvalidateOnAnimation(this);
+      } else {
+        ViewCompat.postInvalidateOnAnimation(
+          this,
+          mRectRevealed.left,
+          mRectRevealed.top,
+          mRectRevealed.right,
+          mRectRevealed.bottom
+        );
+      }
     }
   }
 
@@ -319,30 +496,28 @@ public class SwipeLayout extends ViewGroup {
     mIsOpenBeforeInit = true;
     mAborted = false;
 
-    if (animation) {
+    if (animation && admitSettle()) {
       mState = STATE_OPENING;
+      updateLayers();
+      ensureDragHelper();
       mDragHelper.smoothSlideViewTo(mMainView, mRectMainOpen.left, mRectMainOpen.top);
 
       if (mDragStateChanged != null) {
         mDragStateChanged.onDragStateChanged(mState);
       }
     } else {
+      abortDragHelper();
       mState = STATE_OPEN;
-      mDragHelper.abort();
+      mStage = STAGE_OPEN;
+      updateLayers();
 
-      mMainView.layout(
-        mRectMainOpen.left,
-        mRectMainOpen.top,
-        mRectMainOpen.right,
-        mRectMainOpen.bottom
-      );
+      if (!isLayoutPending()) {
+        layoutToState();
+      }
 
-      mSecondaryView.layout(
-        mRectSecOpen.left,
-        mRectSecOpen.top,
-        mRectSecOpen.right,
-        mRectSecOpen.bottom
-      );
+      if (animation) {
+        notifyJumped();
+      }
     }
 
     ViewCompat.postInvalidateOnAnimation(SwipeLayout.this);
@@ -352,8 +527,10 @@ public class SwipeLayout extends ViewGroup {
     mIsOpenBeforeInit = false;
     mAborted = false;
 
-    if (animation) {
+    if (animation && admitSettle()) {
       mState = STATE_CLOSING;
+      updateLayers();
+      ensureDragHelper();
       mDragHelper.smoothSlideViewTo(mMainView, mRectMainClose.left, mRectMainClose.top);
 
       if (mDragStateChanged != null) {
@@ -361,27 +538,62 @@ public class SwipeLayout extends ViewGroup {
       }
 
     } else {
+      abortDragHelper();
       mState = STATE_CLOSE;
-      mDragHelper.abort();
+      mStage = STAGE_CLOSED;
+      updateLayers();
 
-      mMainView.layout(
-        mRectMainClose.left,
-        mRectMainClose.top,
-        mRectMainClose.right,
-        mRectMainClose.bottom
-      );
+      if (!isLayoutPending()) {
+        layoutToState();
+      }
 
-      mSecondaryView.layout(
-        mRectSecClose.left,
-        mRectSecClose.top,
-        mRectSecClose.right,
-        mRectSecClose.bottom
-      );
+      if (animation) {
+        notifyJumped();
+      }
     }
 
     ViewCompat.postInvalidateOnAnimation(SwipeLayout.this);
   }
 
+  public void setAdaptiveThresholds(boolean enabled) {
+    setAdaptiveThresholds(enabled, getClass().getName());
+  }
+
+  public void setAdaptiveThresholds(boolean enabled, String key) {
+    mSwipeMetrics = enabled ? SwipeMetrics.get(key) : null;
+    mDragTracked = false;
+  }
+
+  public SwipeMetrics getSwipeMetrics() {
+    return mSwipeMetrics;
+  }
+
+  public void setFullSwipeEnabled(boolean enabled) {
+    mFullSwipeEnabled = enabled;
+    initAnchors();
+  }
+
+  public boolean isFullSwipeEnabled() {
+    return mFullSwipeEnabled;
+  }
+
+  public void setFullSwipeThreshold(float threshold) {
+    mFullSwipeThreshold = threshold;
+    initAnchors();
+  }
+
+  public float getFullSwipeThreshold() {
+    return mFullSwipeThreshold;
+  }
+
+  public int getStage() {
+    return mStage;
+  }
+
+  public void setSwipeStageListener(SwipeStage listener) {
+    mSwipeStage = listener;
+  }
+
   public void setMinFlingVelocity(int velocity) {
     mMinFlingVelocity = velocity;
   }
@@ -391,13 +603,28 @@ public class SwipeLayout extends ViewGroup {
   }
 
   public void setDragEdge(int dragEdge) {
-    mDragEdge = dragEdge;
+    mDragEdges = dragEdge;
+    assignChildren();
+    requestLayout();
   }
 
   public int getDragEdge() {
     return mDragEdge;
   }
 
+  public int getDragEdges() {
+    return mDragEdges;
+  }
+
+  public void setLayerPolicy(int layerPolicy) {
+    mLayerPolicy = layerPolicy;
+    updateLayers();
+  }
+
+  public int getLayerPolicy() {
+    return mLayerPolicy;
+  }
+
   public void setSwipeListener(Swipe listener) {
     mSwipe = listener;
   }
@@ -418,13 +645,66 @@ public class SwipeLayout extends ViewGroup {
     return (mState == STATE_CLOSE);
   }
 
+  public void setPrefetchListener(Prefetch listener, Executor executor) {
+    setPrefetchListener(listener, executor, PREFETCH_ON_DRAG);
+  }
+
+  public void setPrefetchListener(Prefetch listener, Executor executor, int trigger) {
+    cancelPrefetch();
+    mPrefetch = listener;
+    mPrefetchExecutor = executor;
+    mPrefetchTrigger = trigger;
+  }
+
+  public void setGestureRecorder(GestureRecorder recorder) {
+    mGestureRecorder = recorder;
+  }
+
+  int getState() {
+    return mState;
+  }
+
+  void setSettleDriver(SettleDriver driver) {
+    if (mSettleDriver == driver) {
+      return;
+    }
+
+    if (mSettleDriver != null) {
+      mSettleDriver.remove(this);
+    }
+
+    mSettleDriver = driver;
+
+    if (isSettling()) {
+      if (driver == null || !driver.admit(this)) {
+        ViewCompat.postInvalidateOnAnimation(this);
+      }
+    }
+  }
+
+  boolean continueSettling() {
+    return mDragHelper != null && mDragHelper.continueSettling(false);
+  }
+
+  boolean isSettling() {
+    return mDragHelper != null && mDragHelper.getViewDragState() == ViewDragHelper.STATE_SETTLING;
+  }
+
+  boolean hasDragHelper() {
+    return mDragHelper != null;
+  }
+
   void setDragStateChangeListener(DragStateChanged listener) {
     mDragStateChanged = listener;
   }
 
+  DragStateChanged getDragStateChangeListener() {
+    return mDragStateChanged;
+  }
+
   protected void abort() {
     mAborted = true;
-    mDragHelper.abort();
+    abortDragHelper();
   }
 
   protected boolean shouldRequestLayout() {
@@ -434,10 +714,10 @@ public class SwipeLayout extends ViewGroup {
   private int getMainOpenLeft() {
     switch (mDragEdge) {
       case DRAG_EDGE_LEFT:
-        return mRectMainClose.left + mSecondaryView.getWidth();
+        return mRectMainClose.left + mRectSecClose.width();
 
       case DRAG_EDGE_RIGHT:
-        return mRectMainClose.left - mSecondaryView.getWidth();
+        return mRectMainClose.left - mRectSecClose.width();
 
       case DRAG_EDGE_TOP:
         return mRectMainClose.left;
@@ -459,10 +739,10 @@ public class SwipeLayout extends ViewGroup {
         return mRectMainClose.top;
 
       case DRAG_EDGE_TOP:
-        return mRectMainClose.top + mSecondaryView.getHeight();
+        return mRectMainClose.top + mRectSecClose.height();
 
       case DRAG_EDGE_BOTTOM:
-        return mRectMainClose.top - mSecondaryView.getHeight();
+        return mRectMainClose.top - mRectSecClose.height();
 
       default:
         return 0;
@@ -475,9 +755,9 @@ public class SwipeLayout extends ViewGroup {
     }
 
     if (mDragEdge == DRAG_EDGE_LEFT) {
-      return mRectSecClose.left + mSecondaryView.getWidth();
+      return mRectSecClose.left + mRectSecClose.width();
     } else {
-      return mRectSecClose.left - mSecondaryView.getWidth();
+      return mRectSecClose.left - mRectSecClose.width();
     }
   }
 
@@ -487,9 +767,9 @@ public class SwipeLayout extends ViewGroup {
     }
 
     if (mDragEdge == DRAG_EDGE_TOP) {
-      return mRectSecClose.top + mSecondaryView.getHeight();
+      return mRectSecClose.top + mRectSecClose.height();
     } else {
-      return mRectSecClose.top - mSecondaryView.getHeight();
+      return mRectSecClose.top - mRectSecClose.height();
     }
   }
 
@@ -508,82 +788,715 @@ public class SwipeLayout extends ViewGroup {
       mSecondaryView.getBottom()
     );
 
+    initOpenRects();
+  }
+
+  private int getLayoutWidth(View child, int available) {
+    final LayoutParams childParams = child.getLayoutParams();
+
+    if (childParams != null && childParams.width == LayoutParams.FILL_PARENT) {
+      childParams.width = available;
+      return available;
+    }
+
+    return child.getMeasuredWidth();
+  }
+
+  private int getLayoutHeight(View child, int available) {
+    final LayoutParams childParams = child.getLayoutParams();
+
+    if (childParams != null && childParams.height == LayoutParams.FILL_PARENT) {
+      childParams.height = available;
+      return available;
+    }
+
+    return child.getMeasuredHeight();
+  }
+
+  private void getChildRect(View child, int childEdge, int width, int height, int l, int t, int r, int b, Rect out) {
+    final int minLeft = getPaddingLeft();
+    final int maxRight = Math.max(r - getPaddingRight() - l, 0);
+    final int minTop = getPaddingTop();
+    final int maxBottom = Math.max(b - getPaddingBottom() - t, 0);
+
+    int left, right, top, bottom;
+    left = right = top = bottom = 0;
+
+    switch (childEdge) {
+      case DRAG_EDGE_RIGHT:
+        left = Math.max(r - width - getPaddingRight() - l, minLeft);
+        top = Math.min(getPaddingTop(), maxBottom);
+        right = Math.max(r - getPaddingRight() - l, minLeft);
+        bottom = Math.min(height + getPaddingTop(), maxBottom);
+        break;
+
+      case DRAG_EDGE_TOP:
+      case DRAG_EDGE_LEFT:
+        left = Math.min(getPaddingLeft(), maxRight);
+        top = Math.min(getPaddingTop(), maxBottom);
+        right = Math.min(width + getPaddingLeft(), maxRight);
+        bottom = Math.min(height + getPaddingTop(), maxBottom);
+        break;
+
+      case DRAG_EDGE_BOTTOM:
+        left = Math.min(getPaddingLeft(), maxRight);
+        top = Math.max(b - height - getPaddingBottom() - t, minTop);
+        right = Math.min(width + getPaddingLeft(), maxRight);
+        bottom = Math.max(b - getPaddingBottom() - t, minTop);
+        break;
+    }
+
+    out.set(left, top, right, bottom);
+
+    if (mMode == MODE_SAME_LEVEL && getSecondaryView(childEdge) == child) {
+      switch (childEdge) {
+        case DRAG_EDGE_LEFT:
+          out.offset(-out.width(), 0);
+          break;
+
+        case DRAG_EDGE_RIGHT:
+          out.offset(out.width(), 0);
+          break;
+
+        case DRAG_EDGE_TOP:
+          out.offset(0, -out.height());
+          break;
+
+        case DRAG_EDGE_BOTTOM:
+          out.offset(0, out.height());
+      }
+    }
+  }
+
+  private void initOpenRects() {
     mRectMainOpen.set(
       getMainOpenLeft(),
       getMainOpenTop(),
-      getMainOpenLeft() + mMainView.getWidth(),
-      getMainOpenTop() + mMainView.getHeight()
+      getMainOpenLeft() + mRectMainClose.width(),
+      getMainOpenTop() + mRectMainClose.height()
     );
 
     mRectSecOpen.set(
       getSecOpenLeft(),
       getSecOpenTop(),
-      getSecOpenLeft() + mSecondaryView.getWidth(),
-      getSecOpenTop() + mSecondaryView.getHeight()
+      getSecOpenLeft() + mRectSecClose.width(),
+      getSecOpenTop() + mRectSecClose.height()
     );
-  }
 
-  private boolean couldBecomeClick(MotionEvent ev) {
-    return isInMainView(ev) && !shouldInitiateADrag();
+    initAnchors();
   }
 
-  private boolean isInMainView(@org.jetbrains.annotations.NotNull MotionEvent ev) {
-    float x = ev.getX();
-    float y = ev.getY();
-
-    boolean withinVertical = mMainView.getTop() <= y && y <= mMainView.getBottom();
-    boolean withinHorizontal = mMainView.getLeft() <= x && x <= mMainView.getRight();
+  private void layoutToState() {
+    final Rect main = mState == STATE_OPEN ? mRectMainOpen : mRectMainClose;
+    final Rect secondary = mState == STATE_OPEN ? mRectSecOpen : mRectSecClose;
 
-    return withinVertical && withinHorizontal;
+    mMainView.layout(main.left, main.top, main.right, main.bottom);
+    mSecondaryView.layout(secondary.left, secondary.top, secondary.right, secondary.bottom);
   }
 
-  private boolean shouldInitiateADrag() {
-    float minDistToInitiateDrag = mDragHelper.getTouchSlop();
-    return mDragDist >= minDistToInitiateDrag;
+  private boolean isLayoutPending() {
+    return mOnLayoutCount == 0 || isLayoutRequested();
   }
 
-  private void accumulateDragDist(MotionEvent ev) {
-    final int action = ev.getAction();
-    if (action == MotionEvent.ACTION_DOWN) {
-      mDragDist = 0;
+  private void initAnchors() {
+    if (mMainView == null || mSecondaryView == null) {
       return;
     }
 
-    boolean dragHorizontally = getDragEdge() == DRAG_EDGE_LEFT ||
-      getDragEdge() == DRAG_EDGE_RIGHT;
+    final boolean horizontal = isDragHorizontal();
+    final int secondarySize = horizontal ? mRectSecClose.width() : mRectSecClose.height();
+    final int mainSize = horizontal ? mRectMainClose.width() : mRectMainClose.height();
 
-    float dragged;
-    if (dragHorizontally) {
-      dragged = Math.abs(ev.getX() - mPrevX);
-    } else {
-      dragged = Math.abs(ev.getY() - mPrevY);
-    }
+    mAnchors[STAGE_CLOSED] = 0;
+    mAnchors[STAGE_OPEN] = secondarySize;
+    mStageThresholds[STAGE_CLOSED] = 0;
+    mStageThresholds[STAGE_OPEN] = secondarySize / 2;
+    mAnchorCount = 2;
 
-    mDragDist += dragged;
+    if (mFullSwipeEnabled && mainSize > secondarySize) {
+      mAnchors[STAGE_FULL] = mainSize;
+      mStageThresholds[STAGE_FULL] = secondarySize + (int) ((mainSize - secondarySize) * mFullSwipeThreshold);
+      mAnchorCount = 3;
+    }
   }
 
-  private void init(Context context, AttributeSet attrs) {
-    if (attrs != null && context != null) {
-      TypedArray a = context.getTheme().obtainStyledAttributes(
-        attrs,
-        R.styleable.SwipeLayout,
-        0, 0
-      );
+  private int getDragOffset() {
+    switch (mDragEdge) {
+      case DRAG_EDGE_LEFT:
+        return mMainView.getLeft() - mRectMainClose.left;
+
+      case DRAG_EDGE_RIGHT:
+        return mRectMainClose.left - mMainView.getLeft();
+
+      case DRAG_EDGE_TOP:
+        return mMainView.getTop() - mRectMainClose.top;
+
+      case DRAG_EDGE_BOTTOM:
+        return mRectMainClose.top - mMainView.getTop();
+
+      default:
+        return 0;
+    }
+  }
+
+  private int getMaxDragOffset() {
+    return mAnchors[mAnchorCount - 1];
+  }
+
+  private int getStageForOffset(int offset) {
+    int stage = STAGE_CLOSED;
+
+    for (int index = 1; index < mAnchorCount; index++) {
+      if (offset >= mStageThresholds[index]) {
+        stage = index;
+      }
+    }
+
+    return stage;
+  }
+
+  private void settleToStage(int stage) {
+    if (stage == STAGE_CLOSED) {
+      close(true);
+    } else if (stage == STAGE_OPEN || mAnchorCount <= STAGE_FULL) {
+      open(true);
+    } else {
+      mIsOpenBeforeInit = true;
+      mAborted = false;
+
+      final int offset = mAnchors[STAGE_FULL];
+      int left = mRectMainClose.left;
+      int top = mRectMainClose.top;
+
+      switch (mDragEdge) {
+        case DRAG_EDGE_LEFT:
+          left += offset;
+          break;
+
+        case DRAG_EDGE_RIGHT:
+          left -= offset;
+          break;
+
+        case DRAG_EDGE_TOP:
+          top += offset;
+          break;
+
+        case DRAG_EDGE_BOTTOM:
+          top -= offset;
+          break;
+      }
+
+      if (admitSettle()) {
+        mState = STATE_OPENING;
+        updateLayers();
+        ensureDragHelper();
+        mDragHelper.smoothSlideViewTo(mMainView, left, top);
+
+        if (mDragStateChanged != null) {
+          mDragStateChanged.onDragStateChanged(mState);
+        }
+      } else {
+        abortDragHelper();
+        mState = STATE_OPEN;
+        updateLayers();
+
+        final int dx = left - mMainView.getLeft();
+        final int dy = top - mMainView.getTop();
+        mMainView.offsetLeftAndRight(dx);
+        mMainView.offsetTopAndBottom(dy);
+
+        if (mMode == MODE_SAME_LEVEL) {
+          mSecondaryView.offsetLeftAndRight(dx);
+          mSecondaryView.offsetTopAndBottom(dy);
+        }
+
+        updateStage();
+        notifyJumped();
+      }
+
+      ViewCompat.postInvalidateOnAnimation(SwipeLayout.this);
+    }
+  }
+
+  private boolean admitSettle() {
+    return mSettleDriver == null || mSettleDriver.admit(this);
+  }
+
+  private void notifyJumped() {
+    mLastMainLeft = mMainView.getLeft();
+    mLastMainTop = mMainView.getTop();
+
+    if (mSwipe != null) {
+      if (mState == STATE_OPEN) {
+        mSwipe.onOpened(SwipeLayout.this);
+      } else {
+        mSwipe.onClosed(SwipeLayout.this);
+      }
+    }
+
+    if (mDragStateChanged != null) {
+      mDragStateChanged.onDragStateChanged(mState);
+    }
+  }
+
+  private void updateStage() {
+    final int stage = getStageForOffset(getDragOffset());
+
+    if (stage != mStage) {
+      final int previousStage = mStage;
+      mStage = stage;
+
+      if (mSwipeStage != null) {
+        mSwipeStage.onStageChanged(SwipeLayout.this, previousStage, stage);
+      }
+    }
+  }
+
+  private void updateLayers() {
+    final boolean moving = mState == STATE_DRAGGING || mState == STATE_OPENING || mState == STATE_CLOSING;
+    setLayersPromoted(moving && mLayerPolicy == LAYER_POLICY_HARDWARE);
+  }
+
+  private void setLayersPromoted(boolean promote) {
+    if (promote == mLayersPromoted || mMainView == null || mSecondaryView == null) {
+      return;
+    }
+
+    mLayersPromoted = promote;
+
+    if (promote) {
+      mMainLayerType = mMainView.getLayerType();
+      mSecLayerType = mSecondaryView.getLayerType();
+      mMainView.setLayerType(LAYER_TYPE_HARDWARE, null);
+      mSecondaryView.setLayerType(LAYER_TYPE_HARDWARE, null);
+    } else {
+      mMainView.setLayerType(mMainLayerType, null);
+      mSecondaryView.setLayerType(mSecLayerType, null);
+    }
+  }
+
+  private void assignChildren() {
+    final int childCount = getChildCount();
+    int assigned = 0;
+
+    for (int index = 0; index < mSecondaryViews.length; index++) {
+      if ((mDragEdges & (1 << index)) != 0 && assigned < childCount - 1) {
+        mSecondaryViews[index] = getChildAt(assigned++);
+      } else {
+        mSecondaryViews[index] = null;
+      }
+    }
+
+    mMainView = childCount > 0 ? getChildAt(assigned) : null;
+    mDragEdge = Integer.lowestOneBit(mDragEdges);
+    mSecondaryView = getSecondaryView(mDragEdge);
+  }
+
+  private View getSecondaryView(int edge) {
+    final int index = Integer.numberOfTrailingZeros(edge);
+    return index < mSecondaryViews.length ? mSecondaryViews[index] : null;
+  }
+
+  private int getSecondaryEdge(View child, int defaultEdge) {
+    for (int index = 0; index < mSecondaryViews.length; index++) {
+      if (mSecondaryViews[index] == child) {
+        return 1 << index;
+      }
+    }
+
+    return defaultEdge;
+  }
+
+  private void chooseDragEdge(MotionEvent ev) {
+    final float x = ev.getX();
+    final float y = ev.getY();
+    final float dx = x - mEdgeTouchX;
+    final float dy = y - mEdgeTouchY;
+
+    mEdgeTouchX = x;
+    mEdgeTouchY = y;
+
+    if (ev.getActionMasked() != MotionEvent.ACTION_MOVE || Integer.bitCount(mDragEdges) < 2) {
+      return;
+    }
+
+    final boolean atClose = mMainView.getLeft() == mRectMainClose.left
+      && mMainView.getTop() == mRectMainClose.top;
+
+    if (!atClose || (dx == 0 && dy == 0)) {
+      return;
+    }
+
+    final int edge;
+    if (Math.abs(dx) >= Math.abs(dy)) {
+      edge = dx > 0 ? DRAG_EDGE_LEFT : DRAG_EDGE_RIGHT;
+    } else {
+      edge = dy > 0 ? DRAG_EDGE_TOP : DRAG_EDGE_BOTTOM;
+    }
+
+    final View secondary = getSecondaryView(edge);
+    if (edge == mDragEdge || secondary == null) {
+      return;
+    }
+
+    final boolean promoted = mLayersPromoted;
+    setLayersPromoted(false);
+
+    mDragEdge = edge;
+    mSecondaryView = secondary;
+    initRects();
+
+    setLayersPromoted(promoted);
+  }
+
+  void setActiveDragEdge(int edge) {
+    final View secondary = getSecondaryView(edge);
+    if (edge == mDragEdge || (mDragEdges & edge) == 0 || secondary == null) {
+      return;
+    }
+
+    final boolean promoted = mLayersPromoted;
+    setLayersPromoted(false);
+
+    mDragEdge = edge;
+    mSecondaryView = secondary;
+    requestLayout();
+
+    setLayersPromoted(promoted);
+  }
+
+  private void getRevealedRect(Rect out, int mainLeft, int mainTop) {
+    switch (mDragEdge) {
+      case DRAG_EDGE_LEFT:
+        out.set(mRectMainClose.left, mRectMainClose.top, mainLeft, mRectMainClose.bottom);
+        break;
+
+      case DRAG_EDGE_RIGHT:
+        out.set(mainLeft + mMainView.getWidth(), mRectMainClose.top, mRectMainClose.right, mRectMainClose.bottom);
+        break;
+
+      case DRAG_EDGE_TOP:
+        out.set(mRectMainClose.left, mRectMainClose.top, mRectMainClose.right, mainTop);
+        break;
+
+      case DRAG_EDGE_BOTTOM:
+        out.set(mRectMainClose.left, mainTop + mMainView.getHeight(), mRectMainClose.right, mRectMainClose.bottom);
+        break;
+
+      default:
+        out.setEmpty();
+    }
+  }
+
+  private void invalidateRevealed(int prevMainLeft, int prevMainTop) {
+    getRevealedRect(mRectDirty, prevMainLeft, prevMainTop);
+    getRevealedRect(mRectRevealed, mMainView.getLeft(), mMainView.getTop());
+    mRectDirty.union(mRectRevealed);
+
+    if (mRectDirty.isEmpty()) {
+      return;
+    }
+
+    ViewCompat.postInvalidateOnAnimation(
+      SwipeLayout.this,
+      mRectDirty.left,
+      mRectDirty.top,
+      mRectDirty.right,
+      mRectDirty.bottom
+    );
+  }
+
+  private boolean couldBecomeClick(MotionEvent ev) {
+    return isInMainView(ev) && !shouldInitiateADrag();
+  }
+
+  private boolean isInMainView(@org.jetbrains.annotations.NotNull MotionEvent ev) {
+    float x = ev.getX();
+    float y = ev.getY();
+
+    boolean withinVertical = mMainView.getTop() <= y && y <= mMainView.getBottom();
+    boolean withinHorizontal = mMainView.getLeft() <= x && x <= mMainView.getRight();
+
+    return withinVertical && withinHorizontal;
+  }
+
+  private boolean isDragHorizontal() {
+    return mDragEdge == DRAG_EDGE_LEFT || mDragEdge == DRAG_EDGE_RIGHT;
+  }
+
+  private void updatePrefetch(MotionEvent ev) {
+    if (mPrefetch == null) {
+      return;
+    }
+
+    switch (ev.getActionMasked()) {
+      case MotionEvent.ACTION_DOWN:
+        if (ev.getDownTime() == mPrefetchDownTime) {
+          break;
+        }
+
+        mPrefetchDownTime = ev.getDownTime();
+        cancelPrefetch();
+        mPrefetchArmed = mMainView != null
+          && mMainView.getLeft() == mRectMainClose.left
+          && mMainView.getTop() == mRectMainClose.top;
+
+        if (mPrefetchArmed && mPrefetchTrigger == PREFETCH_ON_DOWN) {
+          startPrefetch();
+        }
+        break;
+
+      case MotionEvent.ACTION_MOVE:
+        if (mPrefetchArmed && mPrefetchToken == null && shouldInitiateADrag()) {
+          startPrefetch();
+        }
+        break;
+
+      case MotionEvent.ACTION_UP:
+        if (!shouldInitiateADrag()) {
+          cancelPrefetch();
+        }
+        mPrefetchArmed = false;
+        break;
+
+      case MotionEvent.ACTION_CANCEL:
+        if (mState != STATE_OPENING && mState != STATE_OPEN) {
+          cancelPrefetch();
+        }
+        mPrefetchArmed = false;
+        break;
+    }
+  }
+
+  private void startPrefetch() {
+    final Prefetch listener = mPrefetch;
+    final PrefetchToken token = new PrefetchToken(mDragEdge);
+    mPrefetchToken = token;
+
+    mPrefetchExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        if (!token.isCancelled()) {
+          listener.onPrefetch(SwipeLayout.this, token);
+        }
+      }
+    });
+  }
+
+  private void cancelPrefetch() {
+    if (mPrefetchToken != null) {
+      mPrefetchToken.cancel();
+      mPrefetchToken = null;
+    }
+  }
+
+  private void updateSwipeMetrics(MotionEvent ev) {
+    if (mSwipeMetrics == null) {
+      return;
+    }
+
+    switch (ev.getActionMasked()) {
+      case MotionEvent.ACTION_DOWN:
+        mDragTracked = false;
+        mDragStartStage = mStage;
+        mDragReleaseStage = -1;
+        break;
+
+      case MotionEvent.ACTION_MOVE:
+        if (!mDragTracked && !isDragLocked() && shouldInitiateADrag()) {
+          mDragTracked = true;
+          mSwipeMetrics.onDragStarted();
+        }
+        break;
+
+      case MotionEvent.ACTION_UP:
+        if (mDragTracked) {
+          if (mDragReleaseStage != -1 && mDragReleaseStage != mDragStartStage) {
+            mSwipeMetrics.onDragCompleted();
+          } else {
+            mSwipeMetrics.onDragCancelled();
+          }
+        }
+        mDragTracked = false;
+        break;
+
+      case MotionEvent.ACTION_CANCEL:
+        if (mDragTracked) {
+          mSwipeMetrics.onDragInterrupted();
+        }
+        mDragTracked = false;
+        break;
+    }
+  }
+
+  private void processDragEvent(MotionEvent ev) {
+    final int action = ev.getActionMasked();
+    if (action == MotionEvent.ACTION_DOWN) {
+      mNestedScrollNegotiated = false;
+      mNestedOffsetX = 0;
+      mNestedOffsetY = 0;
+    }
+
+    final boolean horizontal = isDragHorizontal();
+    final int scrollX = Math.round(mPrevX - ev.getX());
+    final int scrollY = Math.round(mPrevY - ev.getY());
+    final boolean nested = action == MotionEvent.ACTION_MOVE
+      && mMainView != null
+      && (scrollX != 0 || scrollY != 0)
+      && startNestedScrollIfDragging();
+
+    int preConsumedX = 0;
+    int preConsumedY = 0;
+    int mainLeft = 0;
+    int mainTop = 0;
+
+    if (nested) {
+      mNestedConsumed[0] = 0;
+      mNestedConsumed[1] = 0;
+
+      if (dispatchNestedPreScroll(horizontal ? scrollX : 0, horizontal ? 0 : scrollY, mNestedConsumed, null,
+        ViewCompat.TYPE_TOUCH)) {
+        preConsumedX = mNestedConsumed[0];
+        preConsumedY = mNestedConsumed[1];
+        mNestedOffsetX += preConsumedX;
+        mNestedOffsetY += preConsumedY;
+      }
+
+      mainLeft = mMainView.getLeft();
+      mainTop = mMainView.getTop();
+    }
+
+    ev.offsetLocation(mNestedOffsetX, mNestedOffsetY);
+    mDragHelper.processTouchEvent(ev);
+    ev.offsetLocation(-mNestedOffsetX, -mNestedOffsetY);
+
+    if (!nested) {
+      return;
+    }
+
+    mNestedConsumed[0] = 0;
+    mNestedConsumed[1] = 0;
+
+    if (horizontal) {
+      final int consumedX = mainLeft - mMainView.getLeft();
+      dispatchNestedScroll(consumedX, 0, scrollX - preConsumedX - consumedX, scrollY, null,
+        ViewCompat.TYPE_TOUCH, mNestedConsumed);
+    } else {
+      final int consumedY = mainTop - mMainView.getTop();
+      dispatchNestedScroll(0, consumedY, scrollX, scrollY - preConsumedY - consumedY, null,
+        ViewCompat.TYPE_TOUCH, mNestedConsumed);
+    }
+  }
+
+  private boolean startNestedScrollIfDragging() {
+    if (!mNestedScrollNegotiated && !mLockDrag && shouldInitiateADrag()) {
+      mNestedScrollNegotiated = true;
+      startNestedScroll(
+        isDragHorizontal() ? ViewCompat.SCROLL_AXIS_HORIZONTAL : ViewCompat.SCROLL_AXIS_VERTICAL,
+        ViewCompat.TYPE_TOUCH
+      );
+    }
+
+    return hasNestedScrollingParent(ViewCompat.TYPE_TOUCH);
+  }
+
+  private void stopNestedScrollIfGestureEnded(MotionEvent ev) {
+    final int action = ev.getActionMasked();
+    if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+      stopNestedScroll(ViewCompat.TYPE_TOUCH);
+    }
+  }
+
+  private boolean shouldInitiateADrag() {
+    if (mDragHelper == null) {
+      return false;
+    }
+
+    float minDistToInitiateDrag = mDragHelper.getTouchSlop();
+    if (mSwipeMetrics != null) {
+      minDistToInitiateDrag *= mSwipeMetrics.getThresholdScale();
+    }
+
+    return mDragDist >= minDistToInitiateDrag;
+  }
+
+  private float getMinDistRequestDisallowParent() {
+    if (mSwipeMetrics != null) {
+      return mMinDistRequestDisallowParent * mSwipeMetrics.getThresholdScale();
+    }
+
+    return mMinDistRequestDisallowParent;
+  }
+
+  private void accumulateDragDist(MotionEvent ev) {
+    final int action = ev.getAction();
+    if (action == MotionEvent.ACTION_DOWN) {
+      mDragDist = 0;
+      return;
+    }
 
-      mDragEdge = a.getInteger(R.styleable.SwipeLayout_dragEdge, DRAG_EDGE_LEFT);
+    float dragged;
+    if (isDragHorizontal()) {
+      dragged = Math.abs(ev.getX() - mPrevX);
+    } else {
+      dragged = Math.abs(ev.getY() - mPrevY);
+    }
+
+    mDragDist += dragged;
+  }
+
+  private void init(Context context, AttributeSet attrs, int defStyleAttr) {
+    if (attrs != null && context != null) {
+      TypedArray a = context.getTheme().obtainStyledAttributes(
+        attrs,
+        R.styleable.SwipeLayout,
+        defStyleAttr, 0
+      );
+
+      mDragEdges = a.getInteger(R.styleable.SwipeLayout_dragEdge, DRAG_EDGE_LEFT);
+      mDragEdge = Integer.lowestOneBit(mDragEdges);
       mMinFlingVelocity = a.getInteger(R.styleable.SwipeLayout_flingVelocity, DEFAULT_MIN_FLING_VELOCITY);
       mMode = a.getInteger(R.styleable.SwipeLayout_mode, MODE_NORMAL);
+      mLayerPolicy = a.getInteger(R.styleable.SwipeLayout_layerPolicy, LAYER_POLICY_NONE);
+      mFullSwipeEnabled = a.getBoolean(R.styleable.SwipeLayout_fullSwipe, false);
+      mFullSwipeThreshold = a.getFloat(R.styleable.SwipeLayout_fullSwipeThreshold, DEFAULT_FULL_SWIPE_THRESHOLD);
+
+      if (a.getBoolean(R.styleable.SwipeLayout_adaptiveThresholds, false)) {
+        mSwipeMetrics = SwipeMetrics.get(getClass().getName());
+      }
 
       mMinDistRequestDisallowParent = a.getDimensionPixelSize(
         R.styleable.SwipeLayout_minDistRequestDisallowParent,
         dpToPx(DEFAULT_MIN_DIST_REQUEST_DISALLOW_PARENT)
       );
+
+      a.recycle();
+    }
+
+    mNestedScrollingChildHelper = new NestedScrollingChildHelper(this);
+    setNestedScrollingEnabled(true);
+  }
+
+  private void ensureDragHelper() {
+    if (mDragHelper != null) {
+      return;
     }
 
     mDragHelper = ViewDragHelper.create(this, 1.0f, mDragHelperCallback);
     mDragHelper.setEdgeTrackingEnabled(ViewDragHelper.EDGE_ALL);
 
-    mGestureDetector = new GestureDetectorCompat(context, mGestureListener);
+    mGestureDetector = new GestureDetectorCompat(getContext(), mGestureListener);
+  }
+
+  private void abortDragHelper() {
+    if (mDragHelper == null) {
+      return;
+    }
+
+    final boolean aborted = mAborted;
+    mAborted = true;
+    mDragHelper.abort();
+    mAborted = aborted;
   }
 
   private final GestureDetector.OnGestureListener mGestureListener = new GestureDetector.SimpleOnGestureListener() {
@@ -606,19 +1519,12 @@ public class SwipeLayout extends ViewGroup {
     public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
       mIsScrolling = true;
 
-      if (getParent() != null) {
-        boolean shouldDisallow;
+      if (!hasDisallowed && getDistToClosestEdge() >= getMinDistRequestDisallowParent()) {
+        hasDisallowed = true;
 
-        if (!hasDisallowed) {
-          shouldDisallow = getDistToClosestEdge() >= mMinDistRequestDisallowParent;
-          if (shouldDisallow) {
-            hasDisallowed = true;
-          }
-        } else {
-          shouldDisallow = true;
+        if (getParent() != null && !hasNestedScrollingParent(ViewCompat.TYPE_TOUCH)) {
+          getParent().requestDisallowInterceptTouchEvent(true);
         }
-
-        getParent().requestDisallowInterceptTouchEvent(shouldDisallow);
       }
 
       return false;
@@ -663,22 +1569,6 @@ public class SwipeLayout extends ViewGroup {
     return 0;
   }
 
-  private int getHalfwayPivotHorizontal() {
-    if (mDragEdge == DRAG_EDGE_LEFT) {
-      return mRectMainClose.left + mSecondaryView.getWidth() / 2;
-    } else {
-      return mRectMainClose.right - mSecondaryView.getWidth() / 2;
-    }
-  }
-
-  private int getHalfwayPivotVertical() {
-    if (mDragEdge == DRAG_EDGE_TOP) {
-      return mRectMainClose.top + mSecondaryView.getHeight() / 2;
-    } else {
-      return mRectMainClose.bottom - mSecondaryView.getHeight() / 2;
-    }
-  }
-
   private final ViewDragHelper.Callback mDragHelperCallback = new ViewDragHelper.Callback() {
     @Override
     public boolean tryCaptureView(@NotNull View child, int pointerId) {
@@ -696,14 +1586,14 @@ public class SwipeLayout extends ViewGroup {
       switch (mDragEdge) {
         case DRAG_EDGE_TOP:
           return Math.max(
-            Math.min(top, mRectMainClose.top + mSecondaryView.getHeight()),
+            Math.min(top, mRectMainClose.top + getMaxDragOffset()),
             mRectMainClose.top
           );
 
         case DRAG_EDGE_BOTTOM:
           return Math.max(
             Math.min(top, mRectMainClose.top),
-            mRectMainClose.top - mSecondaryView.getHeight()
+            mRectMainClose.top - getMaxDragOffset()
           );
 
         default:
@@ -717,12 +1607,12 @@ public class SwipeLayout extends ViewGroup {
         case DRAG_EDGE_RIGHT:
           return Math.max(
             Math.min(left, mRectMainClose.left),
-            mRectMainClose.left - mSecondaryView.getWidth()
+            mRectMainClose.left - getMaxDragOffset()
           );
 
         case DRAG_EDGE_LEFT:
           return Math.max(
-            Math.min(left, mRectMainClose.left + mSecondaryView.getWidth()),
+            Math.min(left, mRectMainClose.left + getMaxDragOffset()),
             mRectMainClose.left
           );
 
@@ -733,71 +1623,51 @@ public class SwipeLayout extends ViewGroup {
 
     @Override
     public void onViewReleased(@NotNull View releasedChild, float xvel, float yvel) {
-      final boolean velRightExceeded = pxToDp((int) xvel) >= mMinFlingVelocity;
-      final boolean velLeftExceeded = pxToDp((int) xvel) <= -mMinFlingVelocity;
-      final boolean velUpExceeded = pxToDp((int) yvel) <= -mMinFlingVelocity;
-      final boolean velDownExceeded = pxToDp((int) yvel) >= mMinFlingVelocity;
-
-      final int pivotHorizontal = getHalfwayPivotHorizontal();
-      final int pivotVertical = getHalfwayPivotVertical();
-
+      final int velocity;
       switch (mDragEdge) {
-        case DRAG_EDGE_RIGHT:
-          if (velRightExceeded) {
-            close(true);
-          } else if (velLeftExceeded) {
-            open(true);
-          } else {
-            if (mMainView.getRight() < pivotHorizontal) {
-              open(true);
-            } else {
-              close(true);
-            }
-          }
+        case DRAG_EDGE_LEFT:
+          velocity = pxToDp((int) xvel);
           break;
 
-        case DRAG_EDGE_LEFT:
-          if (velRightExceeded) {
-            open(true);
-          } else if (velLeftExceeded) {
-            close(true);
-          } else {
-            if (mMainView.getLeft() < pivotHorizontal) {
-              close(true);
-            } else {
-              open(true);
-            }
-          }
+        case DRAG_EDGE_RIGHT:
+          velocity = -pxToDp((int) xvel);
           break;
 
         case DRAG_EDGE_TOP:
-          if (velUpExceeded) {
-            close(true);
-          } else if (velDownExceeded) {
-            open(true);
-          } else {
-            if (mMainView.getTop() < pivotVertical) {
-              close(true);
-            } else {
-              open(true);
-            }
-          }
+          velocity = pxToDp((int) yvel);
           break;
 
         case DRAG_EDGE_BOTTOM:
-          if (velUpExceeded) {
-            open(true);
-          } else if (velDownExceeded) {
-            close(true);
-          } else {
-            if (mMainView.getBottom() < pivotVertical) {
-              open(true);
-            } else {
-              close(true);
-            }
-          }
+          velocity = -pxToDp((int) yvel);
           break;
+
+        default:
+          velocity = 0;
+      }
+
+      final int offset = getDragOffset();
+
+      if (velocity <= -mMinFlingVelocity || (velocity < mMinFlingVelocity
+        && getStageForOffset(offset) == STAGE_CLOSED)) {
+        cancelPrefetch();
       }
+
+      int stage;
+      if (velocity >= mMinFlingVelocity) {
+        stage = mAnchorCount - 1;
+        for (int index = mAnchorCount - 1; index > STAGE_CLOSED; index--) {
+          if (mAnchors[index] > offset) {
+            stage = index;
+          }
+        }
+      } else if (velocity <= -mMinFlingVelocity) {
+        stage = STAGE_CLOSED;
+      } else {
+        stage = getStageForOffset(offset);
+      }
+
+      mDragReleaseStage = stage;
+      settleToStage(stage);
     }
 
     @Override
@@ -847,9 +1717,11 @@ public class SwipeLayout extends ViewGroup {
         }
       }
 
+      updateStage();
+      invalidateRevealed(left - dx, top - dy);
+
       mLastMainLeft = mMainView.getLeft();
       mLastMainTop = mMainView.getTop();
-      ViewCompat.postInvalidateOnAnimation(SwipeLayout.this);
     }
 
     private float getSlideOffset() {
@@ -900,6 +1772,14 @@ public class SwipeLayout extends ViewGroup {
           break;
       }
 
+      if (mState == STATE_CLOSE) {
+        cancelPrefetch();
+      } else if (mState == STATE_OPEN) {
+        mPrefetchToken = null;
+      }
+
+      updateLayers();
+
       if (mDragStateChanged != null && !mAborted && prevState != mState) {
         mDragStateChanged.onDragStateChanged(mState);
       }
@@ -0,0 +1,146 @@
+package com.apachat.swipereveallayout.core;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class SwipeMetrics {
+  public static final float MIN_SCALE = 0.5f;
+  public static final float MAX_SCALE = 2.0f;
+
+  private static final float SMOOTHING = 0.1f;
+  private static final float GAIN = 2.0f;
+
+  static final int MAX_KEYS = 64;
+
+  private static final Map<String, MetricsReference> evicted = new HashMap<>();
+  private static final ReferenceQueue<SwipeMetrics> collected = new ReferenceQueue<>();
+
+  private static final Map<String, SwipeMetrics> registry = new LinkedHashMap<String, SwipeMetrics>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, SwipeMetrics> eldest) {
+      if (size() <= MAX_KEYS) {
+        return false;
+      }
+
+      final SwipeMetrics metrics = eldest.getValue();
+      evicted.put(metrics.key, new MetricsReference(metrics, collected));
+      return true;
+    }
+  };
+
+  private final String key;
+  private int dragsStarted = 0;
+  private int dragsCompleted = 0;
+  private int dragsCancelled = 0;
+  private int dragsInterrupted = 0;
+  private float cancelRate = 0;
+  private float interruptRate = 0;
+  private float thresholdScale = 1.0f;
+
+  private SwipeMetrics(String key) {
+    this.key = key;
+  }
+
+  public static SwipeMetrics get(String key) {
+    SwipeMetrics metrics = registry.get(key);
+
+    if (metrics == null) {
+      expungeCollected();
+
+      final MetricsReference reference = evicted.remove(key);
+      if (reference != null) {
+        metrics = reference.get();
+      }
+
+      if (metrics == null) {
+        metrics = new SwipeMetrics(key);
+      }
+
+      registry.put(key, metrics);
+    }
+
+    return metrics;
+  }
+
+  private static void expungeCollected() {
+    MetricsReference reference;
+    while ((reference = (MetricsReference) collected.poll()) != null) {
+      if (evicted.get(reference.key) == reference) {
+        evicted.remove(reference.key);
+      }
+    }
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public int getDragsStarted() {
+    return dragsStarted;
+  }
+
+  public int getDragsCompleted() {
+    return dragsCompleted;
+  }
+
+  public int getDragsCancelled() {
+    return dragsCancelled;
+  }
+
+  public int getDragsInterrupted() {
+    return dragsInterrupted;
+  }
+
+  public float getThresholdScale() {
+    return thresholdScale;
+  }
+
+  public void reset() {
+    dragsStarted = 0;
+    dragsCompleted = 0;
+    dragsCancelled = 0;
+    dragsInterrupted = 0;
+    cancelRate = 0;
+    interruptRate = 0;
+    thresholdScale = 1.0f;
+  }
+
+  void onDragStarted() {
+    dragsStarted++;
+  }
+
+  void onDragCompleted() {
+    dragsCompleted++;
+    update(0, 0);
+  }
+
+  void onDragCancelled() {
+    dragsCancelled++;
+    update(1, 0);
+  }
+
+  void onDragInterrupted() {
+    dragsInterrupted++;
+    update(0, 1);
+  }
+
+  private void update(int cancelled, int interrupted) {
+    cancelRate += SMOOTHING * (cancelled - cancelRate);
+    interruptRate += SMOOTHING * (interrupted - interruptRate);
+
+    final float scale = 1.0f + GAIN * (cancelRate - interruptRate);
+    thresholdScale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale));
+  }
+
+  private static final class MetricsReference extends WeakReference<SwipeMetrics> {
+    final String key;
+
+    MetricsReference(SwipeMetrics metrics, ReferenceQueue<SwipeMetrics> queue) {
+      super(metrics, queue);
+      key = metrics.key;
+    }
+  }
+}
@@ -1,92 +1,258 @@
 package com.apachat.swipereveallayout.core;
 
 import android.os.Bundle;
+import android.view.View;
+
+import androidx.core.view.ViewCompat;
 
 import com.apachat.swipereveallayout.core.interfaces.DragStateChanged;
+import com.apachat.swipereveallayout.core.interfaces.StateObserver;
+import com.apachat.swipereveallayout.core.interfaces.StateStore;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 
 public class ViewBinder {
   private static final String BUNDLE_MAP_KEY = "ViewBinder_BUNDLE_MAP_KEY";
+  private static final int EDGE_SHIFT = 4;
+  private static final int STATE_MASK = (1 << EDGE_SHIFT) - 1;
+  private static final int EDGE_MASK = 0x7;
+  private static final int LOCKED_FLAG = 1 << 7;
+
+  public static final String DEFAULT_GROUP = "";
+
+  public static final int OPEN_ONLY_ONE_GLOBAL = 0;
 
-  private Map<String, Integer> mapStates = Collections.synchronizedMap(new HashMap<String, Integer>());
-  private final Map<String, SwipeLayout> mapLayouts = Collections.synchronizedMap(new HashMap<String, SwipeLayout>());
-  private final Set<String> lockedSwipeSet = Collections.synchronizedSet(new HashSet<String>());
+  public static final int OPEN_ONLY_ONE_PER_GROUP = 1;
+
+  private final Map<String, Integer> mapStates = new HashMap<>();
+  private final Map<String, SwipeLayout> mapLayouts = new HashMap<>();
+  private final Map<SwipeLayout, String> mapBoundIds = new HashMap<>();
+  private final Set<String> lockedSwipeSet = new HashSet<>();
+  private final Map<String, String> mapGroups = new HashMap<>();
+  private final Map<String, String> openIds = new HashMap<>();
+  private final Map<String, Integer> mapEdges = new HashMap<>();
+  private final Set<String> pendingStoreIds = new HashSet<>();
 
   private volatile boolean openOnlyOne = false;
-  private final Object stateChangeLock = new Object();
+  private int openOnlyOneScope = OPEN_ONLY_ONE_GLOBAL;
+  private volatile boolean strictThreadChecks = true;
+  private final StateCommandQueue commandQueue = new StateCommandQueue(this);
+  private final SettleDriver settleDriver = new SettleDriver();
+  private final StateDiffDispatcher diffDispatcher = new StateDiffDispatcher();
+  private StateStore stateStore;
+  private Bundle restoredStates;
+  private int openCount = 0;
+  private boolean openStatesResolved = true;
+
+  private final Runnable storeLoadListener = new Runnable() {
+    @Override
+    public void run() {
+      commandQueue.postStoreLoaded();
+    }
+  };
+
+  public void bind(final SwipeLayout swipeLayout, final String id, final String group) {
+    checkMainThread("bind");
+
+    setGroup(id, group);
+    bind(swipeLayout, id);
+  }
 
   public void bind(final SwipeLayout swipeLayout, final String id) {
+    checkMainThread("bind");
+
     if (swipeLayout.shouldRequestLayout()) {
       swipeLayout.requestLayout();
     }
 
-    mapLayouts.values().remove(swipeLayout);
-    mapLayouts.put(id, swipeLayout);
+    final String previousId = mapBoundIds.put(swipeLayout, id);
+    if (previousId != null && !previousId.equals(id) && mapLayouts.get(previousId) == swipeLayout) {
+      mapLayouts.put(previousId, null);
+    }
+
+    final SwipeLayout previousLayout = mapLayouts.put(id, swipeLayout);
+    if (previousLayout != null && previousLayout != swipeLayout) {
+      mapBoundIds.put(previousLayout, null);
+    }
 
     swipeLayout.abort();
-    swipeLayout.setDragStateChangeListener(new DragStateChanged() {
-      @Override
-      public void onDragStateChanged(int state) {
-        mapStates.put(id, state);
+    swipeLayout.setSettleDriver(settleDriver);
+
+    final DragStateChanged listener = swipeLayout.getDragStateChangeListener();
+    if (listener instanceof StateListener && ((StateListener) listener).getBinder() == this) {
+      ((StateListener) listener).id = id;
+    } else {
+      swipeLayout.setDragStateChangeListener(new StateListener(id));
+    }
+
+    final Integer state = getState(id);
+
+    if (state == null && !pendingStoreIds.contains(id)) {
+      mapStates.put(id, SwipeLayout.STATE_CLOSE);
+    }
+
+    applyState(swipeLayout, id, state, false);
+  }
 
-        if (openOnlyOne) {
-          closeOthers(id, swipeLayout);
+  public void unbind(SwipeLayout swipeLayout) {
+    checkMainThread("unbind");
+
+    final String id = mapBoundIds.remove(swipeLayout);
+    if (id == null)
+      return;
+
+    if (mapLayouts.get(id) == swipeLayout) {
+      mapLayouts.remove(id);
+    }
+
+    swipeLayout.setDragStateChangeListener(null);
+    swipeLayout.setSettleDriver(null);
+  }
+
+  public void retainStates(Collection<String> ids) {
+    checkMainThread("retainStates");
+
+    if (ids == null)
+      return;
+
+    final Set<String> retained = ids instanceof Set ? (Set<String>) ids : new HashSet<>(ids);
+
+    materializeRestoredStates();
+
+    final Iterator<Map.Entry<String, Integer>> iterator = mapStates.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Map.Entry<String, Integer> entry = iterator.next();
+      if (!retained.contains(entry.getKey())) {
+        final int state = entry.getValue();
+        iterator.remove();
+
+        if (isOpenState(state)) {
+          openCount--;
         }
+        diffDispatcher.record(entry.getKey(), state, StateChange.STATE_NONE);
       }
-    });
+    }
 
-    if (!mapStates.containsKey(id)) {
-      mapStates.put(id, SwipeLayout.STATE_CLOSE);
-      swipeLayout.close(false);
-    } else {
-      int state = mapStates.get(id);
-      if (state == SwipeLayout.STATE_CLOSE || state == SwipeLayout.STATE_CLOSING ||
-        state == SwipeLayout.STATE_DRAGGING) {
-        swipeLayout.close(false);
-      } else {
-        swipeLayout.open(false);
+    final Iterator<Map.Entry<String, SwipeLayout>> layouts = mapLayouts.entrySet().iterator();
+    while (layouts.hasNext()) {
+      final Map.Entry<String, SwipeLayout> entry = layouts.next();
+      if (entry.getValue() == null && !retained.contains(entry.getKey())) {
+        layouts.remove();
       }
     }
 
-    swipeLayout.setLockDrag(lockedSwipeSet.contains(id));
+    lockedSwipeSet.retainAll(retained);
+    mapGroups.keySet().retainAll(retained);
+    mapEdges.keySet().retainAll(retained);
+    openIds.values().retainAll(retained);
+    pendingStoreIds.retainAll(retained);
+
+    if (stateStore != null) {
+      stateStore.retain(retained);
+    }
+  }
+
+  public void removeStates(Collection<String> ids) {
+    checkMainThread("removeStates");
+
+    if (ids == null || ids.isEmpty())
+      return;
+
+    for (String id : ids) {
+      Integer state = mapStates.remove(id);
+
+      if (state != null && isOpenState(state)) {
+        openCount--;
+      }
+
+      if (restoredStates != null && restoredStates.containsKey(id)) {
+        if (state == null) {
+          state = stateOf(restoredStates.getInt(id));
+        }
+        restoredStates.remove(id);
+      }
+
+      if (state != null) {
+        diffDispatcher.record(id, state, StateChange.STATE_NONE);
+      }
+
+      final String scope = scopeOf(id);
+      if (id.equals(openIds.get(scope))) {
+        openIds.remove(scope);
+      }
+
+      if (mapLayouts.containsKey(id) && mapLayouts.get(id) == null) {
+        mapLayouts.remove(id);
+      }
+
+      lockedSwipeSet.remove(id);
+      mapGroups.remove(id);
+      mapEdges.remove(id);
+      pendingStoreIds.remove(id);
+
+      if (stateStore != null) {
+        stateStore.put(id, SwipeLayout.STATE_CLOSE);
+      }
+    }
   }
 
   public void saveStates(Bundle outState) {
+    checkMainThread("saveStates");
+
+    if (stateStore != null) {
+      stateStore.flush();
+      return;
+    }
+
     if (outState == null)
       return;
 
-    Bundle statesBundle = new Bundle();
+    Bundle statesBundle = restoredStates != null ? new Bundle(restoredStates) : new Bundle();
     for (Map.Entry<String, Integer> entry : mapStates.entrySet()) {
-      statesBundle.putInt(entry.getKey(), entry.getValue());
+      final String id = entry.getKey();
+      statesBundle.putInt(id, packState(entry.getValue(), mapEdges.get(id), lockedSwipeSet.contains(id)));
+    }
+
+    for (String id : lockedSwipeSet) {
+      if (!statesBundle.containsKey(id)) {
+        statesBundle.putInt(id, packState(SwipeLayout.STATE_CLOSE, null, true));
+      }
     }
 
     outState.putBundle(BUNDLE_MAP_KEY, statesBundle);
   }
 
   public void restoreStates(Bundle inState) {
+    checkMainThread("restoreStates");
+
     if (inState == null)
       return;
 
-    if (inState.containsKey(BUNDLE_MAP_KEY)) {
-      HashMap<String, Integer> restoredMap = new HashMap<>();
-
-      Bundle statesBundle = inState.getBundle(BUNDLE_MAP_KEY);
-      Set<String> keySet = statesBundle.keySet();
+    if (!inState.containsKey(BUNDLE_MAP_KEY))
+      return;
 
-      if (keySet != null) {
-        for (String key : keySet) {
-          restoredMap.put(key, statesBundle.getInt(key));
-        }
+    mapStates.clear();
+    openIds.clear();
+    mapEdges.clear();
+    lockedSwipeSet.clear();
+    pendingStoreIds.clear();
+    openCount = 0;
+    restoredStates = inState.getBundle(BUNDLE_MAP_KEY);
+    openStatesResolved = false;
+
+    for (Map.Entry<SwipeLayout, String> entry : mapBoundIds.entrySet()) {
+      final String id = entry.getValue();
+      if (id != null) {
+        applyState(entry.getKey(), id, getState(id), false);
       }
-
-      mapStates = restoredMap;
     }
   }
 
@@ -100,76 +266,601 @@ public class ViewBinder {
 
   public void setOpenOnlyOne(boolean openOnlyOne) {
     this.openOnlyOne = openOnlyOne;
+
+    if (!openOnlyOne)
+      return;
+
+    if (!StateCommandQueue.isMainThread()) {
+      commandQueue.postEnforceOpenOnlyOne();
+      return;
+    }
+
+    enforceOpenOnlyOne();
+  }
+
+  public void setStateStore(StateStore stateStore) {
+    checkMainThread("setStateStore");
+
+    if (this.stateStore != null) {
+      this.stateStore.setLoadListener(null);
+    }
+
+    this.stateStore = stateStore;
+    pendingStoreIds.clear();
+
+    if (stateStore != null) {
+      openStatesResolved = false;
+      stateStore.setLoadListener(storeLoadListener);
+    }
+  }
+
+  public void setOpenOnlyOneScope(int openOnlyOneScope) {
+    checkMainThread("setOpenOnlyOneScope");
+
+    if (this.openOnlyOneScope == openOnlyOneScope)
+      return;
+
+    this.openOnlyOneScope = openOnlyOneScope;
+
+    openIds.clear();
+    resolveRestoredStates();
+    rebuildOpenTracking();
+  }
+
+  public void setGroup(String id, String group) {
+    checkMainThread("setGroup");
+
+    final String newGroup = group != null ? group : DEFAULT_GROUP;
+    if (newGroup.equals(groupOf(id)))
+      return;
+
+    final String oldScope = scopeOf(id);
+    final boolean tracked = id.equals(openIds.get(oldScope));
+    if (tracked) {
+      openIds.remove(oldScope);
+    }
+
+    if (DEFAULT_GROUP.equals(newGroup)) {
+      mapGroups.remove(id);
+    } else {
+      mapGroups.put(id, newGroup);
+    }
+
+    if (tracked) {
+      updateOpenTracking(id, SwipeLayout.STATE_OPEN);
+    }
+  }
+
+  public void addStateObserver(StateObserver observer) {
+    checkMainThread("addStateObserver");
+    diffDispatcher.addObserver(observer);
+  }
+
+  public void removeStateObserver(StateObserver observer) {
+    checkMainThread("removeStateObserver");
+    diffDispatcher.removeObserver(observer);
+  }
+
+  public int getOpenCount() {
+    checkMainThread("getOpenCount");
+    resolveRestoredStates();
+    return openCount;
+  }
+
+  public int getLockedCount() {
+    checkMainThread("getLockedCount");
+    resolveRestoredStates();
+    return lockedSwipeSet.size();
+  }
+
+  public void setMaxConcurrentSettles(int maxConcurrentSettles) {
+    checkMainThread("setMaxConcurrentSettles");
+    settleDriver.setMaxConcurrentSettles(maxConcurrentSettles);
+  }
+
+  public void setJumpOffscreenSettles(boolean jumpOffscreenSettles) {
+    checkMainThread("setJumpOffscreenSettles");
+    settleDriver.setJumpOffscreenSettles(jumpOffscreenSettles);
+  }
+
+  public void setStrictThreadChecks(boolean strictThreadChecks) {
+    this.strictThreadChecks = strictThreadChecks;
   }
 
   public void openLayout(final String id) {
-    synchronized (stateChangeLock) {
-      mapStates.put(id, SwipeLayout.STATE_OPEN);
+    if (!StateCommandQueue.isMainThread()) {
+      commandQueue.postOpen(id);
+      return;
+    }
 
-      if (mapLayouts.containsKey(id)) {
-        final SwipeLayout layout = mapLayouts.get(id);
-        Objects.requireNonNull(layout).open(true);
-      } else if (openOnlyOne) {
-        closeOthers(id, mapLayouts.get(id));
-      }
+    putState(id, SwipeLayout.STATE_OPEN);
+
+    final SwipeLayout layout = mapLayouts.get(id);
+    if (layout != null) {
+      layout.open(true);
     }
   }
 
   public void closeLayout(final String id) {
-    synchronized (stateChangeLock) {
-      mapStates.put(id, SwipeLayout.STATE_CLOSE);
+    if (!StateCommandQueue.isMainThread()) {
+      commandQueue.postClose(id);
+      return;
+    }
+
+    putState(id, SwipeLayout.STATE_CLOSE);
+
+    final SwipeLayout layout = mapLayouts.get(id);
+    if (layout != null) {
+      layout.close(true);
+    }
+  }
+
+  public void openLayouts(Collection<String> ids) {
+    if (ids == null || ids.isEmpty())
+      return;
+
+    if (!StateCommandQueue.isMainThread()) {
+      for (String id : ids) {
+        commandQueue.postOpen(id);
+      }
+      return;
+    }
+
+    if (openOnlyOne) {
+      String last = null;
+      for (String id : ids) {
+        last = id;
+      }
+
+      openLayout(last);
+      return;
+    }
+
+    for (String id : ids) {
+      putState(id, SwipeLayout.STATE_OPEN);
+
+      final SwipeLayout layout = mapLayouts.get(id);
+      if (layout != null) {
+        layout.open(isOnScreen(layout));
+      }
+    }
+  }
+
+  public void closeLayouts(Collection<String> ids) {
+    if (ids == null || ids.isEmpty())
+      return;
+
+    if (!StateCommandQueue.isMainThread()) {
+      for (String id : ids) {
+        commandQueue.postClose(id);
+      }
+      return;
+    }
 
-      if (mapLayouts.containsKey(id)) {
-        final SwipeLayout layout = mapLayouts.get(id);
-        Objects.requireNonNull(layout).close(true);
+    for (String id : ids) {
+      putState(id, SwipeLayout.STATE_CLOSE);
+
+      final SwipeLayout layout = mapLayouts.get(id);
+      if (layout != null) {
+        layout.close(isOnScreen(layout));
       }
     }
   }
 
-  private void closeOthers(String id, SwipeLayout swipeLayout) {
-    synchronized (stateChangeLock) {
-      if (getOpenCount() > 1) {
-        for (Map.Entry<String, Integer> entry : mapStates.entrySet()) {
-          if (!entry.getKey().equals(id)) {
-            entry.setValue(SwipeLayout.STATE_CLOSE);
-          }
+  public void closeAll() {
+    if (!StateCommandQueue.isMainThread()) {
+      commandQueue.postCloseAll();
+      return;
+    }
+
+    if (restoredStates != null) {
+      for (String key : restoredStates.keySet()) {
+        if (mapStates.containsKey(key))
+          continue;
+
+        final int saved = restoredStates.getInt(key);
+        if (isLockedState(saved)) {
+          lockedSwipeSet.add(key);
+        }
+        if (diffDispatcher.hasObservers()) {
+          diffDispatcher.record(key, stateOf(saved), SwipeLayout.STATE_CLOSE);
         }
+      }
+    }
 
-        for (SwipeLayout layout : mapLayouts.values()) {
-          if (layout != swipeLayout) {
-            layout.close(true);
-          }
+    if (stateStore != null) {
+      for (String id : stateStore.getLockedIds()) {
+        if (!mapStates.containsKey(id)) {
+          lockedSwipeSet.add(id);
         }
       }
     }
+
+    restoredStates = null;
+    openStatesResolved = true;
+    openCount = 0;
+    openIds.clear();
+    mapEdges.clear();
+    pendingStoreIds.clear();
+
+    for (Map.Entry<String, Integer> entry : mapStates.entrySet()) {
+      diffDispatcher.record(entry.getKey(), entry.getValue(), SwipeLayout.STATE_CLOSE);
+      entry.setValue(SwipeLayout.STATE_CLOSE);
+    }
+
+    if (stateStore != null) {
+      stateStore.clear();
+
+      for (String id : lockedSwipeSet) {
+        stateStore.put(id, packState(SwipeLayout.STATE_CLOSE, null, true));
+      }
+    }
+
+    for (SwipeLayout layout : mapLayouts.values()) {
+      if (layout != null && !layout.isClosed()) {
+        layout.close(isOnScreen(layout));
+      }
+    }
   }
 
-  private void setLockSwipe(boolean lock, String... id) {
-    if (id == null || id.length == 0)
+  public void setLocked(Collection<String> ids, boolean lock) {
+    if (ids == null || ids.isEmpty())
       return;
 
-    if (lock)
-      lockedSwipeSet.addAll(Arrays.asList(id));
-    else
-      lockedSwipeSet.removeAll(Arrays.asList(id));
+    if (!StateCommandQueue.isMainThread()) {
+      for (String id : ids) {
+        commandQueue.postLock(id, lock);
+      }
+      return;
+    }
+
+    for (String id : ids) {
+      final Integer state = getState(id);
+
+      if (lock)
+        lockedSwipeSet.add(id);
+      else
+        lockedSwipeSet.remove(id);
+
+      if (stateStore != null) {
+        stateStore.put(id, packState(state != null ? state : SwipeLayout.STATE_CLOSE, mapEdges.get(id), lock));
+      }
 
-    for (String s : id) {
-      SwipeLayout layout = mapLayouts.get(s);
+      SwipeLayout layout = mapLayouts.get(id);
       if (layout != null) {
         layout.setLockDrag(lock);
       }
     }
   }
 
-  private int getOpenCount() {
-    int total = 0;
+  private Integer getState(String id) {
+    if (openOnlyOne) {
+      resolveRestoredStates();
+    }
+
+    Integer state = mapStates.get(id);
+    boolean restored = false;
+
+    if (state == null && restoredStates != null && restoredStates.containsKey(id)) {
+      state = restoreState(id, restoredStates.getInt(id));
+      restored = true;
+    }
 
-    for (int state : mapStates.values()) {
-      if (state == SwipeLayout.STATE_OPEN || state == SwipeLayout.STATE_OPENING) {
-        total++;
+    if (state == null && stateStore != null) {
+      final boolean loaded = stateStore.isLoaded();
+      final Integer stored = stateStore.get(id);
+
+      if (stored != null) {
+        state = restoreState(id, stored);
+        restored = true;
+      } else if (!loaded) {
+        pendingStoreIds.add(id);
+      }
+    }
+
+    if (restored && isOpenState(state)) {
+      openCount++;
+    }
+
+    if (state != null && isOpenState(state)) {
+      final String tracked = openIds.get(scopeOf(id));
+
+      if (tracked == null) {
+        openIds.put(scopeOf(id), id);
+      } else if (restored && openOnlyOne && !tracked.equals(id)) {
+        putState(id, SwipeLayout.STATE_CLOSE);
+        state = SwipeLayout.STATE_CLOSE;
+      }
+    }
+
+    return state;
+  }
+
+  private void resolveRestoredStates() {
+    if (openStatesResolved)
+      return;
+
+    openStatesResolved = true;
+
+    final List<String> restoredIds = new ArrayList<>();
+
+    if (restoredStates != null) {
+      for (String key : restoredStates.keySet()) {
+        final int saved = restoredStates.getInt(key);
+        if (!mapStates.containsKey(key) && (isOpenState(stateOf(saved)) || isLockedState(saved))) {
+          restoredIds.add(key);
+        }
       }
     }
 
-    return total;
+    if (stateStore != null) {
+      final Set<String> storedIds = new HashSet<>(stateStore.getOpenIds());
+      storedIds.addAll(stateStore.getLockedIds());
+
+      for (String id : storedIds) {
+        if (!mapStates.containsKey(id) && (restoredStates == null || !restoredStates.containsKey(id))) {
+          restoredIds.add(id);
+        }
+      }
+    }
+
+    for (String id : restoredIds) {
+      final Integer saved = restoredStates != null && restoredStates.containsKey(id)
+        ? Integer.valueOf(restoredStates.getInt(id)) : stateStore.get(id);
+      if (saved == null)
+        continue;
+
+      pendingStoreIds.remove(id);
+      if (isOpenState(restoreState(id, saved))) {
+        openCount++;
+      }
+    }
+
+    rebuildOpenTracking();
+  }
+
+  void enforceOpenOnlyOne() {
+    if (!openOnlyOne)
+      return;
+
+    resolveRestoredStates();
+    rebuildOpenTracking();
+  }
+
+  void applyStoredStates() {
+    if (stateStore == null)
+      return;
+
+    openStatesResolved = false;
+    if (openOnlyOne) {
+      resolveRestoredStates();
+    }
+
+    if (pendingStoreIds.isEmpty())
+      return;
+
+    final List<String> ids = new ArrayList<>(pendingStoreIds);
+    pendingStoreIds.clear();
+
+    for (String id : ids) {
+      final Integer state = getState(id);
+      if (state == null) {
+        mapStates.put(id, SwipeLayout.STATE_CLOSE);
+      }
+
+      final SwipeLayout layout = mapLayouts.get(id);
+      if (layout != null) {
+        applyState(layout, id, state, isOnScreen(layout));
+      }
+    }
+  }
+
+  private void applyState(SwipeLayout layout, String id, Integer state, boolean animation) {
+    if (state != null && isOpenState(state)) {
+      final Integer edge = mapEdges.get(id);
+      if (edge != null) {
+        layout.setActiveDragEdge(edge);
+      }
+
+      layout.open(animation);
+    } else if (!animation || !layout.isClosed()) {
+      layout.close(animation);
+    }
+
+    layout.setLockDrag(lockedSwipeSet.contains(id));
+  }
+
+  private void rebuildOpenTracking() {
+    final List<String> extraIds = new ArrayList<>();
+
+    for (Map.Entry<String, Integer> entry : mapStates.entrySet()) {
+      if (!isOpenState(entry.getValue()))
+        continue;
+
+      final String scope = scopeOf(entry.getKey());
+      final String tracked = openIds.get(scope);
+
+      if (tracked == null) {
+        openIds.put(scope, entry.getKey());
+      } else if (!tracked.equals(entry.getKey())) {
+        extraIds.add(entry.getKey());
+      }
+    }
+
+    if (openOnlyOne) {
+      for (String id : extraIds) {
+        closeTracked(id);
+      }
+    }
+  }
+
+  private void materializeRestoredStates() {
+    if (restoredStates == null)
+      return;
+
+    for (String key : restoredStates.keySet()) {
+      if (!mapStates.containsKey(key)) {
+        final int state = restoreState(key, restoredStates.getInt(key));
+
+        if (isOpenState(state)) {
+          openCount++;
+        }
+      }
+    }
+
+    restoredStates = null;
+  }
+
+  private void putState(String id, int state) {
+    if (openOnlyOne && isOpenState(state)) {
+      resolveRestoredStates();
+    }
+
+    final Integer previous = mapStates.put(id, state);
+    pendingStoreIds.remove(id);
+
+    if (previous != null && isOpenState(previous)) {
+      openCount--;
+    }
+    if (isOpenState(state)) {
+      openCount++;
+    }
+
+    if (diffDispatcher.hasObservers()) {
+      final int oldState;
+      if (previous != null) {
+        oldState = previous;
+      } else if (restoredStates != null && restoredStates.containsKey(id)) {
+        oldState = stateOf(restoredStates.getInt(id));
+      } else {
+        oldState = StateChange.STATE_NONE;
+      }
+
+      diffDispatcher.record(id, oldState, state);
+    }
+
+    if (stateStore != null) {
+      stateStore.put(id, packState(state, mapEdges.get(id), lockedSwipeSet.contains(id)));
+    }
+
+    updateOpenTracking(id, state);
+  }
+
+  private int restoreState(String id, int saved) {
+    final int state = stateOf(saved);
+    final int edge = edgeOf(saved);
+
+    mapStates.put(id, state);
+    if (edge != 0) {
+      mapEdges.put(id, edge);
+    }
+    if (isLockedState(saved)) {
+      lockedSwipeSet.add(id);
+    }
+
+    return state;
+  }
+
+  static int packState(int state, Integer edge) {
+    return packState(state, edge, false);
+  }
+
+  static int packState(int state, Integer edge, boolean locked) {
+    int saved = state;
+    if (edge != null && edge != 0) {
+      saved |= (Integer.numberOfTrailingZeros(edge) + 1) << EDGE_SHIFT;
+    }
+
+    return locked ? saved | LOCKED_FLAG : saved;
+  }
+
+  static int stateOf(int saved) {
+    return saved & STATE_MASK;
+  }
+
+  static int edgeOf(int saved) {
+    final int index = (saved >> EDGE_SHIFT) & EDGE_MASK;
+    return index > 0 ? 1 << (index - 1) : 0;
+  }
+
+  static boolean isLockedState(int saved) {
+    return (saved & LOCKED_FLAG) != 0;
+  }
+
+  private void updateOpenTracking(String id, int state) {
+    final String scope = scopeOf(id);
+
+    if (isOpenState(state)) {
+      final String previous = openIds.put(scope, id);
+
+      if (openOnlyOne && previous != null && !previous.equals(id)) {
+        closeTracked(previous);
+      }
+    } else if (state != SwipeLayout.STATE_DRAGGING && id.equals(openIds.get(scope))) {
+      openIds.remove(scope);
+    }
+  }
+
+  private void closeTracked(String id) {
+    putState(id, SwipeLayout.STATE_CLOSE);
+
+    final SwipeLayout layout = mapLayouts.get(id);
+    if (layout != null) {
+      layout.close(true);
+    }
+  }
+
+  private String groupOf(String id) {
+    final String group = mapGroups.get(id);
+    return group != null ? group : DEFAULT_GROUP;
+  }
+
+  private String scopeOf(String id) {
+    return openOnlyOneScope == OPEN_ONLY_ONE_PER_GROUP ? groupOf(id) : null;
+  }
+
+  private static boolean isOpenState(int state) {
+    return state == SwipeLayout.STATE_OPEN || state == SwipeLayout.STATE_OPENING;
+  }
+
+  private void checkMainThread(String method) {
+    if (strictThreadChecks && !StateCommandQueue.isMainThread()) {
+      throw new IllegalStateException(method + " must be called on the main thread");
+    }
+  }
+
+  static boolean isOnScreen(SwipeLayout layout) {
+    return ViewCompat.isAttachedToWindow(layout)
+      && layout.isShown()
+      && layout.getWindowVisibility() == View.VISIBLE;
+  }
+
+  private void setLockSwipe(boolean lock, String... id) {
+    if (id == null || id.length == 0)
+      return;
+
+    setLocked(Arrays.asList(id), lock);
+  }
+
+  private final class StateListener implements DragStateChanged {
+    private String id;
+
+    StateListener(String id) {
+      this.id = id;
+    }
+
+    ViewBinder getBinder() {
+      return ViewBinder.this;
+    }
+
+    @Override
+    public void onDragStateChanged(int state) {
+      final SwipeLayout layout = mapLayouts.get(id);
+      if (layout != null && isOpenState(state)) {
+        mapEdges.put(id, layout.getDragEdge());
+      }
+
+      putState(id, state);
+    }
   }
-}
\ No newline at end of file
+}
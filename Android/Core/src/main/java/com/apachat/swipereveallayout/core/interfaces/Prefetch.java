@@ -0,0 +1,8 @@
+package com.apachat.swipereveallayout.core.interfaces;
+
+import com.apachat.swipereveallayout.core.PrefetchToken;
+import com.apachat.swipereveallayout.core.SwipeLayout;
+
+public interface Prefetch {
+  void onPrefetch(SwipeLayout view, PrefetchToken token);
+}
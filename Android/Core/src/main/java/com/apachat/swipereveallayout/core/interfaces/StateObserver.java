@@ -0,0 +1,9 @@
+package com.apachat.swipereveallayout.core.interfaces;
+
+import com.apachat.swipereveallayout.core.StateChange;
+
+import java.util.List;
+
+public interface StateObserver {
+  void onStatesChanged(List<StateChange> changes);
+}
@@ -0,0 +1,23 @@
+package com.apachat.swipereveallayout.core.interfaces;
+
+import java.util.Collection;
+
+public interface StateStore {
+  Integer get(String id);
+
+  boolean isLoaded();
+
+  void setLoadListener(Runnable listener);
+
+  Collection<String> getOpenIds();
+
+  Collection<String> getLockedIds();
+
+  void put(String id, int state);
+
+  void retain(Collection<String> ids);
+
+  void clear();
+
+  void flush();
+}
@@ -0,0 +1,7 @@
+package com.apachat.swipereveallayout.core.interfaces;
+
+import com.apachat.swipereveallayout.core.SwipeLayout;
+
+public interface SwipeStage {
+  void onStageChanged(SwipeLayout view, int previousStage, int stage);
+}
@@ -0,0 +1,160 @@
+package com.apachat.swipereveallayout.core;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class AllocationBudgetTest {
+  private static final int WARMUP = 200;
+  private static final int ITERATIONS = 2000;
+
+  private static final long BIND_BUDGET_BYTES = 8;
+  private static final long INTERCEPT_BUDGET_BYTES = 32;
+  private static final long DRAG_BUDGET_BYTES = 32;
+
+  private com.sun.management.ThreadMXBean threads;
+  private Activity activity;
+
+  @Before
+  public void setUp() {
+    final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+
+    threads = (com.sun.management.ThreadMXBean) bean;
+    assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+
+    activity = TestRows.activity();
+  }
+
+  @Test
+  public void rebindStaysWithinBudget() {
+    final ViewBinder binder = new ViewBinder();
+    final SwipeLayout[] layouts = new SwipeLayout[4];
+    final String[] ids = new String[8];
+
+    for (int i = 0; i < layouts.length; i++) {
+      layouts[i] = TestRows.create(activity, SwipeLayout.DRAG_EDGE_LEFT);
+      TestRows.layout(layouts[i]);
+    }
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = "row" + i;
+      binder.bind(layouts[i % layouts.length], ids[i]);
+    }
+
+    final Runnable bind = new Runnable() {
+      private int next;
+
+      @Override
+      public void run() {
+        binder.bind(layouts[next % layouts.length], ids[next % ids.length]);
+        next++;
+      }
+    };
+
+    assertBudget("bind", bind, BIND_BUDGET_BYTES);
+  }
+
+  @Test
+  public void interceptMovesStayWithinBudget() {
+    final SwipeLayout layout = TestRows.create(activity, SwipeLayout.DRAG_EDGE_LEFT);
+    TestRows.layout(layout);
+
+    final long downTime = SystemClock.uptimeMillis();
+    final MotionEvent[] moves = moves(downTime, 50, 50, 0, 30);
+
+    final MotionEvent down = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, 50, 50, 0);
+    layout.onInterceptTouchEvent(down);
+    down.recycle();
+
+    final Runnable intercept = new Runnable() {
+      private int next;
+
+      @Override
+      public void run() {
+        layout.onInterceptTouchEvent(moves[next++ % moves.length]);
+      }
+    };
+
+    assertBudget("intercept", intercept, INTERCEPT_BUDGET_BYTES);
+    recycle(moves);
+  }
+
+  @Test
+  public void dragMovesStayWithinBudget() {
+    final SwipeLayout layout = TestRows.create(activity, SwipeLayout.DRAG_EDGE_LEFT);
+    TestRows.layout(layout);
+
+    final long downTime = SystemClock.uptimeMillis();
+    final MotionEvent down = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, 50, 50, 0);
+    layout.onTouchEvent(down);
+    down.recycle();
+
+    final MotionEvent start = MotionEvent.obtain(downTime, downTime + 16, MotionEvent.ACTION_MOVE, 110, 50, 0);
+    layout.onTouchEvent(start);
+    start.recycle();
+    assertTrue(layout.getState() == SwipeLayout.STATE_DRAGGING);
+
+    final MotionEvent[] moves = moves(downTime + 16, 110, 50, 20, 0);
+
+    final Runnable drag = new Runnable() {
+      private int next;
+
+      @Override
+      public void run() {
+        layout.onTouchEvent(moves[next++ % moves.length]);
+      }
+    };
+
+    assertBudget("drag", drag, DRAG_BUDGET_BYTES);
+    recycle(moves);
+  }
+
+  private void assertBudget(String name, Runnable operation, long budgetBytes) {
+    for (int i = 0; i < WARMUP; i++) {
+      operation.run();
+    }
+
+    final long threadId = Thread.currentThread().getId();
+    final long before = threads.getThreadAllocatedBytes(threadId);
+
+    for (int i = 0; i < ITERATIONS; i++) {
+      operation.run();
+    }
+
+    final long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+    final long perOperation = allocated / ITERATIONS;
+
+    assertTrue(name + " allocated " + perOperation + " bytes per call, budget " + budgetBytes,
+      perOperation <= budgetBytes);
+  }
+
+  private static MotionEvent[] moves(long startTime, float x, float y, float dx, float dy) {
+    final MotionEvent[] moves = new MotionEvent[WARMUP + ITERATIONS];
+
+    for (int i = 0; i < moves.length; i++) {
+      final float sign = i % 2 == 0 ? 1 : -1;
+      moves[i] = MotionEvent.obtain(startTime, startTime + 8 * (i + 1), MotionEvent.ACTION_MOVE,
+        x + sign * dx, y + sign * dy, 0);
+    }
+
+    return moves;
+  }
+
+  private static void recycle(MotionEvent[] events) {
+    for (MotionEvent event : events) {
+      event.recycle();
+    }
+  }
+}
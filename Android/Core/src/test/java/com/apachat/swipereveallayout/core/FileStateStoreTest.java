@@ -0,0 +1,237 @@
+package com.apachat.swipereveallayout.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class FileStateStoreTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void flushedStatesSurviveReopen() throws Exception {
+    final File file = folder.newFile();
+    final FileStateStore store = new FileStateStore(file);
+
+    store.put("a", SwipeLayout.STATE_OPEN);
+    store.put("b", SwipeLayout.STATE_CLOSE);
+    store.put("a", SwipeLayout.STATE_CLOSE);
+    store.flush();
+    store.awaitWrites();
+
+    final FileStateStore reopened = new FileStateStore(file);
+    reopened.awaitWrites();
+    assertEquals(Integer.valueOf(SwipeLayout.STATE_CLOSE), reopened.get("a"));
+    assertEquals(Integer.valueOf(SwipeLayout.STATE_CLOSE), reopened.get("b"));
+    assertNull(reopened.get("c"));
+  }
+
+  @Test
+  public void clearHidesIndexedStatesImmediately() throws Exception {
+    final File file = folder.newFile();
+    final FileStateStore writer = new FileStateStore(file);
+    writer.put("a", SwipeLayout.STATE_OPEN);
+    writer.flush();
+    writer.awaitWrites();
+
+    final FileStateStore store = new FileStateStore(file);
+    store.awaitWrites();
+    assertEquals(Integer.valueOf(SwipeLayout.STATE_OPEN), store.get("a"));
+
+    store.clear();
+    assertNull(store.get("a"));
+
+    store.put("b", SwipeLayout.STATE_OPEN);
+    store.flush();
+    store.awaitWrites();
+
+    final FileStateStore reopened = new FileStateStore(file);
+    reopened.awaitWrites();
+    assertNull(reopened.get("a"));
+    assertEquals(Integer.valueOf(SwipeLayout.STATE_OPEN), reopened.get("b"));
+  }
+
+  @Test
+  public void clearBeforeInitialLoadDropsLoadedStates() throws Exception {
+    final File file = folder.newFile();
+    final FileStateStore writer = new FileStateStore(file);
+    for (int i = 0; i < 1000; i++) {
+      writer.put("row" + i, SwipeLayout.STATE_OPEN);
+    }
+    writer.flush();
+    writer.awaitWrites();
+
+    final FileStateStore store = new FileStateStore(file);
+    store.clear();
+    store.awaitWrites();
+
+    assertNull(store.get("row0"));
+    assertNull(store.get("row999"));
+  }
+
+  @Test
+  public void partialTailRecordIsDropped() throws Exception {
+    final File file = folder.newFile();
+    final FileStateStore writer = new FileStateStore(file);
+    writer.put("a", SwipeLayout.STATE_OPEN);
+    writer.flush();
+    writer.awaitWrites();
+
+    appendBytes(file, new byte[] {0, 0, 0, 1, 0, 9, 'b'});
+
+    final FileStateStore reopened = new FileStateStore(file);
+    reopened.awaitWrites();
+    assertEquals(Integer.valueOf(SwipeLayout.STATE_OPEN), reopened.get("a"));
+    assertNull(reopened.get("b"));
+    assertEquals(4 + 7 + 1, file.length());
+  }
+
+  @Test
+  public void foreignFileIsIgnored() throws Exception {
+    final File file = folder.newFile();
+    appendBytes(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+
+    final FileStateStore store = new FileStateStore(file);
+    store.awaitWrites();
+    assertNull(store.get("a"));
+    assertTrue(store.isLoaded());
+
+    store.put("a", SwipeLayout.STATE_OPEN);
+    store.flush();
+
+    final FileStateStore reopened = new FileStateStore(file);
+    reopened.awaitWrites();
+    assertEquals(Integer.valueOf(SwipeLayout.STATE_OPEN), reopened.get("a"));
+  }
+
+  @Test
+  public void compactionKeepsLatestStates() throws Exception {
+    final File file = folder.newFile();
+    final FileStateStore store = new FileStateStore(file);
+
+    for (int round = 0; round < 40; round++) {
+      for (int i = 0; i < 256; i++) {
+        store.put("row" + i, round % 2 == 0 ? SwipeLayout.STATE_OPEN : SwipeLayout.STATE_CLOSE);
+      }
+      store.flush();
+    }
+    store.awaitWrites();
+
+    assertTrue(file.length() < 4096 * 11);
+    assertFalse(new File(file.getPath() + ".tmp").exists());
+
+    final FileStateStore reopened = new FileStateStore(file);
+    reopened.awaitWrites();
+    for (int i = 0; i < 256; i++) {
+      assertEquals(Integer.valueOf(SwipeLayout.STATE_CLOSE), reopened.get("row" + i));
+    }
+  }
+
+  @Test
+  public void unflushedStatesAreServedFromMemory() throws Exception {
+    final File file = folder.newFile();
+    final FileStateStore store = new FileStateStore(file);
+
+    store.put("a", SwipeLayout.STATE_OPEN);
+    assertEquals(Integer.valueOf(SwipeLayout.STATE_OPEN), store.get("a"));
+    assertEquals(0, file.length());
+  }
+
+  @Test
+  public void flushWritesBeforeReturning() throws Exception {
+    final File file = folder.newFile();
+    final FileStateStore store = new FileStateStore(file);
+
+    store.put("a", SwipeLayout.STATE_OPEN);
+    store.flush();
+
+    assertEquals(4 + 7 + 1, file.length());
+  }
+
+  @Test
+  public void flushedStatesLeaveTheWriteBuffer() throws Exception {
+    final File file = folder.newFile();
+    final FileStateStore store = new FileStateStore(file);
+
+    for (int i = 0; i < 100; i++) {
+      store.put("row" + i, SwipeLayout.STATE_OPEN);
+    }
+    assertEquals(100, store.bufferedCount());
+
+    store.flush();
+
+    assertEquals(0, store.bufferedCount());
+    assertEquals(Integer.valueOf(SwipeLayout.STATE_OPEN), store.get("row42"));
+
+    store.put("row42", SwipeLayout.STATE_CLOSE);
+    assertEquals(1, store.bufferedCount());
+    assertEquals(Integer.valueOf(SwipeLayout.STATE_CLOSE), store.get("row42"));
+  }
+
+  @Test
+  public void openAndLockedIdsAreReadFromTheIndex() throws Exception {
+    final File file = folder.newFile();
+    final FileStateStore writer = new FileStateStore(file);
+    writer.put("a", SwipeLayout.STATE_OPEN);
+    writer.put("b", ViewBinder.packState(SwipeLayout.STATE_CLOSE, null, true));
+    writer.put("c", SwipeLayout.STATE_CLOSE);
+    writer.put("d", SwipeLayout.STATE_OPEN);
+    writer.put("d", SwipeLayout.STATE_CLOSE);
+    writer.flush();
+
+    final FileStateStore store = new FileStateStore(file);
+    store.awaitWrites();
+
+    assertEquals(Collections.singleton("a"), new HashSet<>(store.getOpenIds()));
+    assertEquals(Collections.singleton("b"), new HashSet<>(store.getLockedIds()));
+
+    store.put("c", SwipeLayout.STATE_OPEN);
+    store.put("a", SwipeLayout.STATE_CLOSE);
+    assertEquals(Collections.singleton("c"), new HashSet<>(store.getOpenIds()));
+  }
+
+  @Test
+  public void retainDropsOtherIds() throws Exception {
+    final File file = folder.newFile();
+    final FileStateStore store = new FileStateStore(file);
+    store.put("a", SwipeLayout.STATE_OPEN);
+    store.put("b", SwipeLayout.STATE_OPEN);
+    store.flush();
+    store.put("c", SwipeLayout.STATE_OPEN);
+
+    store.retain(Collections.singleton("a"));
+
+    assertEquals(Integer.valueOf(SwipeLayout.STATE_OPEN), store.get("a"));
+    assertNull(store.get("b"));
+    assertNull(store.get("c"));
+    assertEquals(Collections.singleton("a"), new HashSet<>(store.getOpenIds()));
+
+    store.awaitWrites();
+
+    final FileStateStore reopened = new FileStateStore(file);
+    reopened.awaitWrites();
+    assertEquals(Integer.valueOf(SwipeLayout.STATE_OPEN), reopened.get("a"));
+    assertNull(reopened.get("b"));
+    assertEquals(4 + 7 + 1, file.length());
+  }
+
+  private static void appendBytes(File file, byte[] bytes) throws IOException {
+    try (FileOutputStream out = new FileOutputStream(file, true)) {
+      out.write(bytes);
+    }
+  }
+}
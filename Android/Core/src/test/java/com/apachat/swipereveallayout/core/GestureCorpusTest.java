@@ -0,0 +1,159 @@
+package com.apachat.swipereveallayout.core;
+
+import android.view.MotionEvent;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class GestureCorpusTest {
+  private static final int MAX_SETTLE_FRAMES = 120;
+
+  @Test
+  public void corpusReplaysToExpectedStates() throws IOException {
+    final List<String[]> corpus = readCorpus();
+    assertFalse(corpus.isEmpty());
+
+    for (String[] entry : corpus) {
+      final String name = entry[0];
+      final SwipeLayout layout = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+
+      final GestureReplayer.Report report = TestRows.gesture(name).replay(layout, TestRows.clock());
+
+      final int[] states = report.getStateTransitions();
+      assertEquals(name, SwipeLayout.STATE_CLOSE, states[0]);
+      assertTrue(name, report.getSettleFrames() < MAX_SETTLE_FRAMES);
+      assertFalse(name, layout.isSettling());
+
+      if ("open".equals(entry[1])) {
+        assertTrue(name, layout.isOpened());
+        assertEquals(name, SwipeLayout.STATE_OPEN, states[states.length - 1]);
+      } else {
+        assertTrue(name, layout.isClosed());
+        assertEquals(name, SwipeLayout.STATE_CLOSE, states[states.length - 1]);
+      }
+    }
+  }
+
+  @Test
+  public void recordedGestureReplaysToTheSameStates() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final GestureRecorder recorder = new GestureRecorder(out);
+
+    final SwipeLayout recorded = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    recorded.setGestureRecorder(recorder);
+    TestRows.swipe(recorded, 50, 50, 150, 50, 6);
+    TestRows.settle(recorded);
+    recorder.close();
+    assertTrue(recorded.isOpened());
+
+    final GestureReplayer replayer = new GestureReplayer(new ByteArrayInputStream(out.toByteArray()));
+    assertTrue(replayer.getEventCount() > 0);
+
+    final SwipeLayout replayed = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    final GestureReplayer.Report report = replayer.replay(replayed, TestRows.clock());
+
+    assertTrue(replayed.isOpened());
+    assertEquals(SwipeLayout.STATE_OPEN, report.getStateTransitions()[report.getStateTransitions().length - 1]);
+  }
+
+  @Test
+  public void recordingsKeepPointerIdsAndIndexes() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final GestureRecorder recorder = new GestureRecorder(out);
+
+    final MotionEvent down = pointers(MotionEvent.ACTION_DOWN, 0, new int[]{0}, 10);
+    final MotionEvent secondDown = pointers(MotionEvent.ACTION_POINTER_DOWN, 1, new int[]{0, 7}, 20);
+    final MotionEvent firstUp = pointers(MotionEvent.ACTION_POINTER_UP, 0, new int[]{0, 7}, 30);
+    final MotionEvent up = pointers(MotionEvent.ACTION_UP, 0, new int[]{7}, 40);
+    recorder.record(down, GestureRecorder.SOURCE_TOUCH);
+    recorder.record(secondDown, GestureRecorder.SOURCE_TOUCH);
+    recorder.record(firstUp, GestureRecorder.SOURCE_TOUCH);
+    recorder.record(up, GestureRecorder.SOURCE_TOUCH);
+    recorder.close();
+
+    final GestureReplayer replayer = new GestureReplayer(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(4, replayer.getEventCount());
+
+    assertEquals(MotionEvent.ACTION_POINTER_DOWN, replayer.getActionMasked(1));
+    assertEquals(1, replayer.getActionIndex(1));
+    assertEquals(2, replayer.getPointerCount(1));
+    assertEquals(0, replayer.getPointerId(1, 0));
+    assertEquals(7, replayer.getPointerId(1, 1));
+
+    assertEquals(MotionEvent.ACTION_POINTER_UP, replayer.getActionMasked(2));
+    assertEquals(0, replayer.getActionIndex(2));
+
+    assertEquals(1, replayer.getPointerCount(3));
+    assertEquals(7, replayer.getPointerId(3, 0));
+
+    final SwipeLayout layout = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    final GestureReplayer.Report report = replayer.replay(layout, TestRows.clock());
+    assertTrue(layout.isClosed());
+    assertEquals(SwipeLayout.STATE_CLOSE, report.getStateTransitions()[0]);
+  }
+
+  @Test
+  public void replayIsDeterministic() throws IOException {
+    final SwipeLayout first = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    final SwipeLayout second = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+
+    final int[] firstStates = TestRows.gesture("reverse_fling").replay(first, TestRows.clock()).getStateTransitions();
+    final int[] secondStates = TestRows.gesture("reverse_fling").replay(second, TestRows.clock()).getStateTransitions();
+
+    assertArrayEquals(Arrays.toString(firstStates), firstStates, secondStates);
+  }
+
+  private static MotionEvent pointers(int action, int actionIndex, int[] ids, long eventTime) {
+    final MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[ids.length];
+    final MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[ids.length];
+
+    for (int index = 0; index < ids.length; index++) {
+      properties[index] = new MotionEvent.PointerProperties();
+      properties[index].id = ids[index];
+
+      coords[index] = new MotionEvent.PointerCoords();
+      coords[index].x = 50 + 20 * index;
+      coords[index].y = 50;
+    }
+
+    return MotionEvent.obtain(0, eventTime, action | actionIndex << MotionEvent.ACTION_POINTER_INDEX_SHIFT,
+      ids.length, properties, coords, 0, 0, 1, 1, 0, 0, 0, 0);
+  }
+
+  private static List<String[]> readCorpus() throws IOException {
+    final List<String[]> corpus = new ArrayList<>();
+    final InputStream in = GestureCorpusTest.class.getClassLoader().getResourceAsStream("gestures/corpus.txt");
+
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, Charset.forName("UTF-8")))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+
+        corpus.add(line.split("\\s+"));
+      }
+    }
+
+    return corpus;
+  }
+}
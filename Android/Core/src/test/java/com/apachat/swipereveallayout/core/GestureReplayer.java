@@ -0,0 +1,287 @@
+package com.apachat.swipereveallayout.core;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+public class GestureReplayer {
+  private static final int FRAME_MILLIS = 16;
+  private static final int MAX_SETTLE_FRAMES = 600;
+
+  private static final int VERSION_SINGLE_POINTER = 1;
+
+  private byte[] sources = new byte[64];
+  private byte[] actions = new byte[64];
+  private byte[] actionIndexes = new byte[64];
+  private int[] deltas = new int[64];
+  private int[] firstPointers = new int[65];
+  private int eventCount = 0;
+
+  private byte[] pointerIds = new byte[64];
+  private float[] xs = new float[64];
+  private float[] ys = new float[64];
+  private int pointerTotal = 0;
+
+  public interface FrameClock {
+    void advance(long millis);
+  }
+
+  public GestureReplayer(InputStream inputStream) throws IOException {
+    final DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+
+    if (in.readInt() != GestureRecorder.MAGIC) {
+      throw new IOException("Not a gesture recording");
+    }
+
+    final int version = in.readByte();
+    if (version != VERSION_SINGLE_POINTER && version != GestureRecorder.VERSION) {
+      throw new IOException("Unsupported gesture recording version " + version);
+    }
+
+    try {
+      while (true) {
+        final byte source = in.readByte();
+        final byte action = in.readByte();
+        final byte actionIndex = version == VERSION_SINGLE_POINTER ? 0 : in.readByte();
+        final int pointerCount = version == VERSION_SINGLE_POINTER ? 1 : in.readByte();
+        final int delta = in.readShort();
+
+        for (int pointer = 0; pointer < pointerCount; pointer++) {
+          final byte id = version == VERSION_SINGLE_POINTER ? 0 : in.readByte();
+          final float x = in.readFloat();
+          final float y = in.readFloat();
+
+          if (pointerTotal == pointerIds.length) {
+            growPointers();
+          }
+
+          pointerIds[pointerTotal] = id;
+          xs[pointerTotal] = x;
+          ys[pointerTotal] = y;
+          pointerTotal++;
+        }
+
+        if (eventCount + 1 == firstPointers.length) {
+          grow();
+        }
+
+        sources[eventCount] = source;
+        actions[eventCount] = action;
+        actionIndexes[eventCount] = actionIndex;
+        deltas[eventCount] = delta;
+        firstPointers[eventCount + 1] = pointerTotal;
+        eventCount++;
+      }
+    } catch (EOFException ignored) {
+      // End of recording. A partially written event is dropped.
+      pointerTotal = firstPointers[eventCount];
+    }
+  }
+
+  public int getEventCount() {
+    return eventCount;
+  }
+
+  public int getActionMasked(int event) {
+    return actions[event];
+  }
+
+  public int getActionIndex(int event) {
+    return actionIndexes[event];
+  }
+
+  public int getPointerCount(int event) {
+    return firstPointers[event + 1] - firstPointers[event];
+  }
+
+  public int getPointerId(int event, int pointer) {
+    return pointerIds[firstPointers[event] + pointer];
+  }
+
+  public Report replay(SwipeLayout layout, FrameClock clock) {
+    final long[] eventNanos = new long[eventCount];
+    final StateTrace trace = new StateTrace(layout);
+
+    long downTime = SystemClock.uptimeMillis();
+    long eventTime = downTime;
+
+    for (int index = 0; index < eventCount; index++) {
+      pumpFrames(layout, clock, deltas[index], trace);
+      eventTime += deltas[index];
+
+      if (actions[index] == MotionEvent.ACTION_DOWN) {
+        downTime = eventTime;
+      }
+
+      final MotionEvent ev = obtain(index, downTime, eventTime);
+      final long start = System.nanoTime();
+
+      if (sources[index] == GestureRecorder.SOURCE_INTERCEPT) {
+        layout.onInterceptTouchEvent(ev);
+      } else {
+        layout.onTouchEvent(ev);
+      }
+
+      eventNanos[index] = System.nanoTime() - start;
+      ev.recycle();
+
+      trace.sample();
+    }
+
+    int settleFrames = 0;
+    while (layout.isSettling() && settleFrames < MAX_SETTLE_FRAMES) {
+      clock.advance(FRAME_MILLIS);
+      layout.continueSettling();
+      trace.sample();
+      settleFrames++;
+    }
+
+    return new Report(eventNanos, trace.toArray(), settleFrames);
+  }
+
+  private MotionEvent obtain(int event, long downTime, long eventTime) {
+    final int pointerCount = getPointerCount(event);
+    final MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[pointerCount];
+    final MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[pointerCount];
+
+    for (int pointer = 0; pointer < pointerCount; pointer++) {
+      final int offset = firstPointers[event] + pointer;
+
+      properties[pointer] = new MotionEvent.PointerProperties();
+      properties[pointer].id = pointerIds[offset];
+      properties[pointer].toolType = MotionEvent.TOOL_TYPE_FINGER;
+
+      coords[pointer] = new MotionEvent.PointerCoords();
+      coords[pointer].x = xs[offset];
+      coords[pointer].y = ys[offset];
+      coords[pointer].pressure = 1;
+      coords[pointer].size = 1;
+    }
+
+    final int action = actions[event] | actionIndexes[event] << MotionEvent.ACTION_POINTER_INDEX_SHIFT;
+    return MotionEvent.obtain(downTime, eventTime, action, pointerCount, properties, coords,
+      0, 0, 1, 1, 0, 0, 0, 0);
+  }
+
+  private static void pumpFrames(SwipeLayout layout, FrameClock clock, int millis, StateTrace trace) {
+    while (millis > 0) {
+      final int step = Math.min(millis, FRAME_MILLIS);
+      clock.advance(step);
+      millis -= step;
+
+      if (layout.isSettling()) {
+        layout.continueSettling();
+        trace.sample();
+      }
+    }
+  }
+
+  private void grow() {
+    final int size = sources.length * 2;
+    sources = Arrays.copyOf(sources, size);
+    actions = Arrays.copyOf(actions, size);
+    actionIndexes = Arrays.copyOf(actionIndexes, size);
+    deltas = Arrays.copyOf(deltas, size);
+    firstPointers = Arrays.copyOf(firstPointers, size + 1);
+  }
+
+  private void growPointers() {
+    final int size = pointerIds.length * 2;
+    pointerIds = Arrays.copyOf(pointerIds, size);
+    xs = Arrays.copyOf(xs, size);
+    ys = Arrays.copyOf(ys, size);
+  }
+
+  private static final class StateTrace {
+    private final SwipeLayout layout;
+    private int[] states = new int[16];
+    private int size = 0;
+
+    StateTrace(SwipeLayout layout) {
+      this.layout = layout;
+      states[size++] = layout.getState();
+    }
+
+    void sample() {
+      final int state = layout.getState();
+
+      if (states[size - 1] != state) {
+        if (size == states.length) {
+          states = Arrays.copyOf(states, size * 2);
+        }
+
+        states[size++] = state;
+      }
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(states, size);
+    }
+  }
+
+  public static final class Report {
+    private final long[] eventNanos;
+    private final int[] states;
+    private final int settleFrames;
+
+    Report(long[] eventNanos, int[] states, int settleFrames) {
+      this.eventNanos = eventNanos;
+      this.states = states;
+      this.settleFrames = settleFrames;
+    }
+
+    public long[] getEventNanos() {
+      return eventNanos;
+    }
+
+    public long getMaxEventNanos() {
+      long max = 0;
+      for (long nanos : eventNanos) {
+        max = Math.max(max, nanos);
+      }
+
+      return max;
+    }
+
+    public long getTotalEventNanos() {
+      long total = 0;
+      for (long nanos : eventNanos) {
+        total += nanos;
+      }
+
+      return total;
+    }
+
+    public int[] getStateTransitions() {
+      return states;
+    }
+
+    public int getSettleFrames() {
+      return settleFrames;
+    }
+
+    @Override
+    public String toString() {
+      final StringBuilder builder = new StringBuilder();
+      for (int index = 0; index < states.length; index++) {
+        if (index > 0) {
+          builder.append(" -> ");
+        }
+
+        builder.append(SwipeLayout.getStateString(states[index]));
+      }
+
+      return "events=" + eventNanos.length
+        + " totalNanos=" + getTotalEventNanos()
+        + " maxNanos=" + getMaxEventNanos()
+        + " settleFrames=" + settleFrames
+        + " states=" + builder;
+    }
+  }
+}
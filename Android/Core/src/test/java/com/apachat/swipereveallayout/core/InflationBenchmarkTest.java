@@ -0,0 +1,107 @@
+package com.apachat.swipereveallayout.core;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.view.LayoutInflater;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class InflationBenchmarkTest {
+  private static final int ROWS = 100;
+  private static final int EDGES = SwipeLayout.DRAG_EDGE_LEFT | SwipeLayout.DRAG_EDGE_RIGHT;
+
+  private Activity activity;
+  private AttributeSet attrs;
+
+  @Before
+  public void setUp() {
+    activity = TestRows.activity();
+    attrs = Robolectric.buildAttributeSet()
+      .addAttribute(R.attr.dragEdge, "left|right")
+      .addAttribute(R.attr.mode, "normal")
+      .build();
+  }
+
+  @Test
+  public void constructorsReadAttributes() {
+    assertEquals(EDGES, new SwipeLayout(activity, attrs).getDragEdges());
+    assertEquals(EDGES, new SwipeLayout(activity, attrs, 0).getDragEdges());
+  }
+
+  @Test
+  public void constructedRowsAssignChildrenAsTheyAreAdded() {
+    final SwipeLayout row = new SwipeLayout(activity, attrs);
+    final View left = new View(activity);
+    final View right = new View(activity);
+    final View main = new View(activity);
+
+    row.addView(left, new ViewGroup.LayoutParams(TestRows.SECONDARY_SIZE, ViewGroup.LayoutParams.MATCH_PARENT));
+    row.addView(right, new ViewGroup.LayoutParams(TestRows.SECONDARY_SIZE, ViewGroup.LayoutParams.MATCH_PARENT));
+    row.addView(main, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+    TestRows.layout(row);
+
+    assertEquals(0, main.getLeft());
+    assertEquals(TestRows.ROW_WIDTH, main.getRight());
+    assertEquals(TestRows.ROW_WIDTH - TestRows.SECONDARY_SIZE, right.getLeft());
+
+    row.open(false);
+    assertEquals(TestRows.SECONDARY_SIZE, main.getLeft());
+
+    row.removeView(right);
+    row.removeView(main);
+    row.addView(main, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+    row.close(false);
+    TestRows.layout(row);
+
+    assertEquals(0, main.getLeft());
+  }
+
+  @Test
+  public void inflateHundredRows() {
+    final int layoutId = activity.getResources()
+      .getIdentifier("benchmark_swipe_row", "layout", activity.getPackageName());
+    assumeTrue(layoutId != 0);
+
+    final LayoutInflater inflater = LayoutInflater.from(activity);
+    final FrameLayout parent = new FrameLayout(activity);
+    final ViewBinder binder = new ViewBinder();
+    final SwipeLayout[] rows = new SwipeLayout[ROWS];
+
+    for (int i = 0; i < ROWS; i++) {
+      rows[i] = (SwipeLayout) inflater.inflate(layoutId, parent, false);
+      TestRows.layout(rows[i]);
+    }
+
+    for (int i = 0; i < ROWS; i++) {
+      final SwipeLayout row = rows[i];
+      assertEquals(EDGES, row.getDragEdges());
+      assertEquals(0, row.getChildAt(2).getLeft());
+      assertEquals(TestRows.ROW_WIDTH - row.getChildAt(1).getWidth(), row.getChildAt(1).getLeft());
+
+      binder.bind(row, "row" + i);
+      assertFalse(row.hasDragHelper());
+    }
+
+    TestRows.touch(rows[0], MotionEvent.ACTION_DOWN, 50, 50, SystemClock.uptimeMillis());
+
+    assertTrue(rows[0].hasDragHelper());
+    for (int i = 1; i < ROWS; i++) {
+      assertFalse(rows[i].hasDragHelper());
+    }
+  }
+}
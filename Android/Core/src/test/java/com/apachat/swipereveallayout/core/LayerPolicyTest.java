@@ -0,0 +1,113 @@
+package com.apachat.swipereveallayout.core;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class LayerPolicyTest {
+  private SwipeLayout layout;
+  private View secondary;
+  private View main;
+
+  @Before
+  public void setUp() {
+    layout = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    secondary = layout.getChildAt(0);
+    main = layout.getChildAt(1);
+  }
+
+  @Test
+  public void noneKeepsLayersWhileSettling() {
+    layout.open(true);
+
+    assertLayers(View.LAYER_TYPE_NONE);
+    TestRows.settle(layout);
+    assertTrue(layout.isOpened());
+    assertLayers(View.LAYER_TYPE_NONE);
+  }
+
+  @Test
+  public void hardwarePromotesWhileOpeningAndClosing() {
+    layout.setLayerPolicy(SwipeLayout.LAYER_POLICY_HARDWARE);
+
+    layout.open(true);
+    assertLayers(View.LAYER_TYPE_HARDWARE);
+    TestRows.settle(layout);
+    assertTrue(layout.isOpened());
+    assertLayers(View.LAYER_TYPE_NONE);
+
+    layout.close(true);
+    assertLayers(View.LAYER_TYPE_HARDWARE);
+    TestRows.settle(layout);
+    assertTrue(layout.isClosed());
+    assertLayers(View.LAYER_TYPE_NONE);
+  }
+
+  @Test
+  public void hardwarePromotesWhileDragging() {
+    layout.setLayerPolicy(SwipeLayout.LAYER_POLICY_HARDWARE);
+
+    final long downTime = SystemClock.uptimeMillis();
+    TestRows.touch(layout, MotionEvent.ACTION_DOWN, 50, 50, downTime);
+    TestRows.frames(1);
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 90, 50, downTime);
+    assertEquals(SwipeLayout.STATE_DRAGGING, layout.getState());
+    assertLayers(View.LAYER_TYPE_HARDWARE);
+
+    TestRows.frames(1);
+    TestRows.touch(layout, MotionEvent.ACTION_UP, 90, 50, downTime);
+    TestRows.settle(layout);
+    assertLayers(View.LAYER_TYPE_NONE);
+  }
+
+  @Test
+  public void jumpDemotesImmediately() {
+    layout.setLayerPolicy(SwipeLayout.LAYER_POLICY_HARDWARE);
+
+    layout.open(true);
+    TestRows.frames(2);
+    layout.computeScroll();
+    assertLayers(View.LAYER_TYPE_HARDWARE);
+
+    layout.close(false);
+    assertLayers(View.LAYER_TYPE_NONE);
+  }
+
+  @Test
+  public void restoresOwnLayerTypes() {
+    layout.setLayerPolicy(SwipeLayout.LAYER_POLICY_HARDWARE);
+    main.setLayerType(View.LAYER_TYPE_SOFTWARE, null);
+
+    layout.open(true);
+    assertLayers(View.LAYER_TYPE_HARDWARE);
+    TestRows.settle(layout);
+
+    assertEquals(View.LAYER_TYPE_SOFTWARE, main.getLayerType());
+    assertEquals(View.LAYER_TYPE_NONE, secondary.getLayerType());
+  }
+
+  @Test
+  public void policyChangeWhileMovingDemotes() {
+    layout.setLayerPolicy(SwipeLayout.LAYER_POLICY_HARDWARE);
+
+    layout.open(true);
+    assertLayers(View.LAYER_TYPE_HARDWARE);
+
+    layout.setLayerPolicy(SwipeLayout.LAYER_POLICY_NONE);
+    assertLayers(View.LAYER_TYPE_NONE);
+  }
+
+  private void assertLayers(int layerType) {
+    assertEquals(layerType, main.getLayerType());
+    assertEquals(layerType, secondary.getLayerType());
+  }
+}
@@ -0,0 +1,77 @@
+package com.apachat.swipereveallayout.core;
+
+import android.app.Activity;
+import android.view.View;
+import android.widget.LinearLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class LayoutAbortTest {
+  private LinearLayout root;
+  private ViewBinder binder;
+  private SwipeLayout first;
+  private SwipeLayout second;
+
+  @Before
+  public void setUp() {
+    final Activity activity = TestRows.activity();
+    root = new LinearLayout(activity);
+    root.setOrientation(LinearLayout.VERTICAL);
+    activity.setContentView(root);
+
+    binder = new ViewBinder();
+    binder.setOpenOnlyOne(true);
+
+    first = TestRows.attach(root, SwipeLayout.DRAG_EDGE_LEFT);
+    second = TestRows.attach(root, SwipeLayout.DRAG_EDGE_LEFT);
+    binder.bind(first, "first");
+    binder.bind(second, "second");
+    TestRows.frames(2);
+  }
+
+  @Test
+  public void layoutDuringClosingSettleDoesNotCloseTheOpenRow() {
+    binder.openLayout("second");
+    TestRows.frames(60);
+
+    binder.openLayout("first");
+    TestRows.frames(3);
+    assertTrue(second.isSettling());
+
+    second.requestLayout();
+    TestRows.frames(60);
+
+    assertTrue(first.isOpened());
+    assertTrue(second.isClosed());
+    assertEquals(0, main(second).getLeft());
+    assertEquals(1, binder.getOpenCount());
+  }
+
+  @Test
+  public void closeWithoutAnimationDuringOpeningSettleStaysClosed() {
+    binder.openLayout("first");
+    TestRows.frames(60);
+
+    binder.openLayout("second");
+    TestRows.frames(3);
+    assertTrue(second.isSettling());
+
+    second.close(false);
+    TestRows.frames(2);
+
+    assertTrue(second.isClosed());
+    assertEquals(0, main(second).getLeft());
+    assertTrue(first.isClosed());
+  }
+
+  private static View main(SwipeLayout layout) {
+    return layout.getChildAt(layout.getChildCount() - 1);
+  }
+}
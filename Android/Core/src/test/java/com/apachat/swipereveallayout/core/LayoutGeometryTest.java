@@ -0,0 +1,69 @@
+package com.apachat.swipereveallayout.core;
+
+import android.app.Activity;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+public class LayoutGeometryTest {
+  private static final int EDGES = SwipeLayout.DRAG_EDGE_LEFT | SwipeLayout.DRAG_EDGE_RIGHT;
+  private static final int[] WIDTHS = {TestRows.ROW_WIDTH, 1317, 250};
+
+  @Test
+  public void rowsPlaceChildrenFromTheirOwnWidth() {
+    final Activity activity = TestRows.activity();
+
+    for (int width : WIDTHS) {
+      final SwipeLayout row = TestRows.create(activity, EDGES);
+      final View left = row.getChildAt(0);
+      final View right = row.getChildAt(1);
+      final View main = row.getChildAt(2);
+      layout(row, width);
+
+      assertEquals(0, main.getLeft());
+      assertEquals(width, main.getRight());
+      assertEquals(0, left.getLeft());
+      assertEquals(width - TestRows.SECONDARY_SIZE, right.getLeft());
+      assertEquals(width, right.getRight());
+
+      row.open(false);
+
+      assertEquals(TestRows.SECONDARY_SIZE, main.getLeft());
+      assertEquals(width + TestRows.SECONDARY_SIZE, main.getRight());
+    }
+  }
+
+  @Test
+  public void rowsOfTheSameSizeGetTheSameGeometry() {
+    final Activity activity = TestRows.activity();
+
+    final SwipeLayout first = TestRows.create(activity, EDGES);
+    layout(first, 1317);
+
+    final SwipeLayout second = TestRows.create(activity, EDGES);
+    layout(second, 1317);
+
+    for (int index = 0; index < first.getChildCount(); index++) {
+      final View expected = first.getChildAt(index);
+      final View actual = second.getChildAt(index);
+
+      assertEquals(expected.getLeft(), actual.getLeft());
+      assertEquals(expected.getTop(), actual.getTop());
+      assertEquals(expected.getRight(), actual.getRight());
+      assertEquals(expected.getBottom(), actual.getBottom());
+    }
+  }
+
+  private static void layout(SwipeLayout row, int width) {
+    row.measure(
+      View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+      View.MeasureSpec.makeMeasureSpec(TestRows.ROW_HEIGHT, View.MeasureSpec.EXACTLY)
+    );
+    row.layout(0, 0, width, TestRows.ROW_HEIGHT);
+  }
+}
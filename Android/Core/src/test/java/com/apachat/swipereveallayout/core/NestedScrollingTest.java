@@ -0,0 +1,169 @@
+package com.apachat.swipereveallayout.core;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.core.view.NestedScrollingParent3;
+import androidx.core.view.ViewCompat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class NestedScrollingTest {
+  @Test
+  public void tapDoesNotStartNestedScroll() {
+    final RecordingParent parent = attachParent();
+    final SwipeLayout layout = TestRows.attach(parent, SwipeLayout.DRAG_EDGE_LEFT);
+
+    final long downTime = SystemClock.uptimeMillis();
+    TestRows.touch(layout, MotionEvent.ACTION_DOWN, 50, 50, downTime);
+    TestRows.touch(layout, MotionEvent.ACTION_UP, 50, 50, downTime);
+
+    assertEquals(0, parent.startedAxes);
+  }
+
+  @Test
+  public void startsNestedScrollOnSwipeAxisOnceDragStarts() {
+    final RecordingParent parent = attachParent();
+    final SwipeLayout layout = TestRows.attach(parent, SwipeLayout.DRAG_EDGE_TOP);
+
+    final long downTime = SystemClock.uptimeMillis();
+    TestRows.touch(layout, MotionEvent.ACTION_DOWN, 50, 20, downTime);
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 50, 21, downTime);
+    assertEquals(0, parent.startedAxes);
+
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 50, 60, downTime);
+    assertEquals(ViewCompat.SCROLL_AXIS_VERTICAL, parent.startedAxes);
+  }
+
+  @Test
+  public void parentConsumesPreScrollBeforeRowMoves() {
+    final RecordingParent parent = attachParent();
+    parent.preScrollShare = 2;
+    final SwipeLayout layout = TestRows.attach(parent, SwipeLayout.DRAG_EDGE_LEFT);
+    final View main = layout.getChildAt(1);
+
+    final long downTime = SystemClock.uptimeMillis();
+    TestRows.touch(layout, MotionEvent.ACTION_DOWN, 50, 50, downTime);
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 90, 50, downTime);
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 130, 50, downTime);
+
+    assertEquals(-40, parent.preConsumed);
+    assertEquals(40, main.getLeft());
+    assertFalse(parent.disallowed);
+  }
+
+  @Test
+  public void plainParentIsAskedToDisallowIntercept() {
+    final Activity activity = TestRows.activity();
+    final RecordingParent parent = new RecordingParent(activity);
+    parent.acceptNestedScroll = false;
+    activity.setContentView(parent);
+    final SwipeLayout layout = TestRows.attach(parent, SwipeLayout.DRAG_EDGE_LEFT);
+
+    final long downTime = SystemClock.uptimeMillis();
+    TestRows.touch(layout, MotionEvent.ACTION_DOWN, 50, 50, downTime);
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 90, 50, downTime);
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 130, 50, downTime);
+
+    assertEquals(80, layout.getChildAt(1).getLeft());
+    assertTrue(parent.disallowed);
+  }
+
+  @Test
+  public void dispatchesCrossAxisAndClampedDragAxis() {
+    final RecordingParent parent = attachParent();
+    final SwipeLayout layout = TestRows.attach(parent, SwipeLayout.DRAG_EDGE_LEFT);
+
+    final long downTime = SystemClock.uptimeMillis();
+    TestRows.touch(layout, MotionEvent.ACTION_DOWN, 50, 50, downTime);
+    TestRows.frames(1);
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 250, 60, downTime);
+
+    assertFalse(parent.scrolls.isEmpty());
+
+    final int[] scroll = parent.scrolls.get(0);
+    final int moved = layout.getChildAt(1).getLeft();
+
+    assertEquals(TestRows.SECONDARY_SIZE, moved);
+    assertEquals(-moved, scroll[0]);
+    assertEquals(0, scroll[1]);
+    assertEquals(-200 + moved, scroll[2]);
+    assertEquals(-10, scroll[3]);
+  }
+
+  private static RecordingParent attachParent() {
+    final Activity activity = TestRows.activity();
+    final RecordingParent parent = new RecordingParent(activity);
+    activity.setContentView(parent);
+    return parent;
+  }
+
+  private static final class RecordingParent extends FrameLayout implements NestedScrollingParent3 {
+    int startedAxes = 0;
+    boolean acceptNestedScroll = true;
+    int preScrollShare = 0;
+    int preConsumed = 0;
+    boolean disallowed = false;
+    final List<int[]> scrolls = new ArrayList<>();
+
+    RecordingParent(Context context) {
+      super(context);
+    }
+
+    @Override
+    public boolean onStartNestedScroll(@NonNull View child, @NonNull View target, int axes, int type) {
+      startedAxes = axes;
+      return acceptNestedScroll;
+    }
+
+    @Override
+    public void onNestedScrollAccepted(@NonNull View child, @NonNull View target, int axes, int type) {
+    }
+
+    @Override
+    public void onStopNestedScroll(@NonNull View target, int type) {
+    }
+
+    @Override
+    public void onNestedScroll(@NonNull View target, int dxConsumed, int dyConsumed, int dxUnconsumed,
+                               int dyUnconsumed, int type, @NonNull int[] consumed) {
+      scrolls.add(new int[]{dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed});
+    }
+
+    @Override
+    public void onNestedScroll(@NonNull View target, int dxConsumed, int dyConsumed, int dxUnconsumed,
+                               int dyUnconsumed, int type) {
+      scrolls.add(new int[]{dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed});
+    }
+
+    @Override
+    public void onNestedPreScroll(@NonNull View target, int dx, int dy, @NonNull int[] consumed, int type) {
+      if (preScrollShare > 0) {
+        consumed[0] = dx / preScrollShare;
+        consumed[1] = dy / preScrollShare;
+        preConsumed += consumed[0];
+      }
+    }
+
+    @Override
+    public void requestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+      disallowed |= disallowIntercept;
+      super.requestDisallowInterceptTouchEvent(disallowIntercept);
+    }
+  }
+}
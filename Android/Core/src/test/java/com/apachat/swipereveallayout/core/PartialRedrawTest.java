@@ -0,0 +1,146 @@
+package com.apachat.swipereveallayout.core;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class PartialRedrawTest {
+  private RecordingParent parent;
+  private SwipeLayout layout;
+  private View secondary;
+  private View main;
+
+  @Before
+  public void setUp() {
+    final Activity activity = TestRows.activity();
+    parent = new RecordingParent(activity);
+    activity.setContentView(parent);
+
+    layout = TestRows.attach(parent, SwipeLayout.DRAG_EDGE_LEFT);
+    secondary = layout.getChildAt(0);
+    main = layout.getChildAt(1);
+  }
+
+  @Test
+  public void dragInvalidatesOnlyTheRevealedStrips() {
+    final long downTime = SystemClock.uptimeMillis();
+    TestRows.touch(layout, MotionEvent.ACTION_DOWN, 10, 50, downTime);
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 40, 50, downTime);
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 60, 50, downTime);
+    drawAndFlush();
+
+    final int before = main.getLeft();
+    assertTrue(before > 0);
+
+    parent.dirty.clear();
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 80, 50, downTime);
+    final int after = main.getLeft();
+    assertTrue(after > before);
+    drawAndFlush();
+
+    assertPartial(new Rect(0, 0, after, TestRows.ROW_HEIGHT));
+
+    parent.dirty.clear();
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 70, 50, downTime);
+    assertTrue(main.getLeft() < after);
+    drawAndFlush();
+
+    assertPartial(new Rect(0, 0, after, TestRows.ROW_HEIGHT));
+  }
+
+  @Test
+  public void secondaryViewIsClippedToTheRevealedStrip() {
+    final long downTime = SystemClock.uptimeMillis();
+    TestRows.touch(layout, MotionEvent.ACTION_DOWN, 10, 50, downTime);
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 40, 50, downTime);
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 60, 50, downTime);
+    assertTrue(main.getLeft() > 0);
+
+    final RecordingCanvas canvas = new RecordingCanvas();
+    layout.drawChild(canvas, secondary, SystemClock.uptimeMillis());
+
+    assertEquals(new Rect(0, 0, main.getLeft(), TestRows.ROW_HEIGHT), canvas.clip);
+  }
+
+  @Test
+  public void closedRowSkipsTheSecondaryView() {
+    final RecordingCanvas canvas = new RecordingCanvas();
+
+    assertFalse(layout.drawChild(canvas, secondary, SystemClock.uptimeMillis()));
+    assertNull(canvas.clip);
+  }
+
+  @Test
+  public void mainViewIsNotClipped() {
+    final long downTime = SystemClock.uptimeMillis();
+    TestRows.touch(layout, MotionEvent.ACTION_DOWN, 10, 50, downTime);
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 40, 50, downTime);
+
+    final RecordingCanvas canvas = new RecordingCanvas();
+    layout.drawChild(canvas, main, SystemClock.uptimeMillis());
+
+    assertNull(canvas.clip);
+  }
+
+  private void assertPartial(Rect expected) {
+    assertTrue(parent.dirty.toString(), parent.dirty.contains(expected));
+
+    for (Rect rect : parent.dirty) {
+      assertTrue(rect.toString(), rect.width() < TestRows.ROW_WIDTH);
+    }
+  }
+
+  private void drawAndFlush() {
+    layout.draw(new Canvas(Bitmap.createBitmap(TestRows.ROW_WIDTH, TestRows.ROW_HEIGHT, Bitmap.Config.ARGB_8888)));
+    TestRows.frames(1);
+  }
+
+  private static final class RecordingParent extends FrameLayout {
+    final List<Rect> dirty = new ArrayList<>();
+
+    RecordingParent(Context context) {
+      super(context);
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public void invalidateChild(View child, Rect r) {
+      if (child instanceof SwipeLayout) {
+        dirty.add(new Rect(r));
+      }
+      super.invalidateChild(child, r);
+    }
+  }
+
+  private static final class RecordingCanvas extends Canvas {
+    Rect clip;
+
+    @Override
+    public boolean clipRect(Rect rect) {
+      if (clip == null) {
+        clip = new Rect(rect);
+      }
+      return super.clipRect(rect);
+    }
+  }
+}
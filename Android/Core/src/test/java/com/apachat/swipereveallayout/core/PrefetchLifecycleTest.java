@@ -0,0 +1,139 @@
+package com.apachat.swipereveallayout.core;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import com.apachat.swipereveallayout.core.interfaces.Prefetch;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class PrefetchLifecycleTest {
+  @Test
+  public void clickCancelsTheToken() {
+    final SwipeLayout layout = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    final RecordingPrefetch prefetch = new RecordingPrefetch();
+    layout.setPrefetchListener(prefetch, prefetch, SwipeLayout.PREFETCH_ON_DOWN);
+
+    final long downTime = SystemClock.uptimeMillis();
+    TestRows.touch(layout, MotionEvent.ACTION_DOWN, 50, 50, downTime);
+    assertEquals(1, prefetch.tokens.size());
+    assertFalse(prefetch.tokens.get(0).isCancelled());
+
+    TestRows.touch(layout, MotionEvent.ACTION_UP, 50, 50, downTime);
+    assertTrue(prefetch.tokens.get(0).isCancelled());
+  }
+
+  @Test
+  public void parentTakeoverCancelsTheToken() {
+    final SwipeLayout layout = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    final RecordingPrefetch prefetch = new RecordingPrefetch();
+    layout.setPrefetchListener(prefetch, prefetch);
+
+    final long downTime = SystemClock.uptimeMillis();
+    TestRows.touch(layout, MotionEvent.ACTION_DOWN, 50, 50, downTime);
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 80, 50, downTime);
+    assertEquals(1, prefetch.tokens.size());
+    assertFalse(prefetch.tokens.get(0).isCancelled());
+
+    TestRows.touch(layout, MotionEvent.ACTION_CANCEL, 80, 50, downTime);
+    assertTrue(prefetch.tokens.get(0).isCancelled());
+  }
+
+  @Test
+  public void verticalScrollCancelsTheTokenThroughTheParentsCancel() {
+    final SwipeLayout layout = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    final RecordingPrefetch prefetch = new RecordingPrefetch();
+    layout.setPrefetchListener(prefetch, prefetch, SwipeLayout.PREFETCH_ON_DOWN);
+
+    final long downTime = SystemClock.uptimeMillis();
+    TestRows.touch(layout, MotionEvent.ACTION_DOWN, 50, 20, downTime);
+    TestRows.touch(layout, MotionEvent.ACTION_MOVE, 50, 90, downTime);
+    assertFalse(prefetch.tokens.get(0).isCancelled());
+
+    TestRows.touch(layout, MotionEvent.ACTION_CANCEL, 50, 90, downTime);
+    assertTrue(prefetch.tokens.get(0).isCancelled());
+  }
+
+  @Test
+  public void settlingClosedCancelsTheToken() {
+    final SwipeLayout layout = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    final RecordingPrefetch prefetch = new RecordingPrefetch();
+    layout.setPrefetchListener(prefetch, prefetch);
+
+    TestRows.swipe(layout, 50, 50, 70, 50, 10);
+    assertEquals(1, prefetch.tokens.size());
+
+    TestRows.settle(layout);
+    assertTrue(layout.isClosed());
+    assertTrue(prefetch.tokens.get(0).isCancelled());
+  }
+
+  @Test
+  public void openingKeepsTheToken() {
+    final SwipeLayout layout = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    final RecordingPrefetch prefetch = new RecordingPrefetch();
+    layout.setPrefetchListener(prefetch, prefetch);
+
+    TestRows.swipe(layout, 50, 50, 150, 50, 6);
+    TestRows.settle(layout);
+
+    assertTrue(layout.isOpened());
+    assertEquals(1, prefetch.tokens.size());
+    assertFalse(prefetch.tokens.get(0).isCancelled());
+  }
+
+  @Test
+  public void onlyOnePrefetchStartsPerGesture() {
+    final SwipeLayout onDrag = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    final RecordingPrefetch dragPrefetch = new RecordingPrefetch();
+    onDrag.setPrefetchListener(dragPrefetch, dragPrefetch);
+    TestRows.swipe(onDrag, 50, 50, 150, 50, 10);
+    assertEquals(1, dragPrefetch.tokens.size());
+
+    final SwipeLayout onDown = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    final RecordingPrefetch downPrefetch = new RecordingPrefetch();
+    onDown.setPrefetchListener(downPrefetch, downPrefetch, SwipeLayout.PREFETCH_ON_DOWN);
+    TestRows.swipe(onDown, 50, 50, 150, 50, 10);
+    assertEquals(1, downPrefetch.tokens.size());
+  }
+
+  @Test
+  public void nextGestureCancelsTheUnfinishedToken() {
+    final SwipeLayout layout = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    final RecordingPrefetch prefetch = new RecordingPrefetch();
+    layout.setPrefetchListener(prefetch, prefetch, SwipeLayout.PREFETCH_ON_DOWN);
+
+    TestRows.touch(layout, MotionEvent.ACTION_DOWN, 50, 50, SystemClock.uptimeMillis());
+    TestRows.frames(1);
+    TestRows.touch(layout, MotionEvent.ACTION_DOWN, 50, 50, SystemClock.uptimeMillis());
+
+    assertEquals(2, prefetch.tokens.size());
+    assertTrue(prefetch.tokens.get(0).isCancelled());
+    assertFalse(prefetch.tokens.get(1).isCancelled());
+  }
+
+  private static final class RecordingPrefetch implements Prefetch, Executor {
+    final List<PrefetchToken> tokens = new ArrayList<>();
+
+    @Override
+    public void execute(Runnable command) {
+      command.run();
+    }
+
+    @Override
+    public void onPrefetch(SwipeLayout view, PrefetchToken token) {
+      tokens.add(token);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package com.apachat.swipereveallayout.core;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.os.Parcel;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class RestoreStartupBenchmarkTest {
+  private static final int SAVED_IDS = 100000;
+  private static final int OPEN_EVERY = 100;
+  private static final int VISIBLE_ROWS = 12;
+  private static final int RUNS = 5;
+  private static final String BUNDLE_MAP_KEY = "ViewBinder_BUNDLE_MAP_KEY";
+
+  @Test
+  public void restoreAndFirstScreenBind() {
+    final Activity activity = TestRows.activity();
+    final List<SwipeLayout> rows = new ArrayList<>();
+    for (int i = 0; i < VISIBLE_ROWS; i++) {
+      final SwipeLayout layout = TestRows.create(activity, SwipeLayout.DRAG_EDGE_LEFT);
+      TestRows.layout(layout);
+      rows.add(layout);
+    }
+
+    final Bundle saved = savedState();
+
+    long lazy = Long.MAX_VALUE;
+    long eager = Long.MAX_VALUE;
+
+    for (int run = 0; run < RUNS; run++) {
+      final Bundle lazyState = recreate(saved);
+      final ViewBinder binder = new ViewBinder();
+
+      long start = System.nanoTime();
+      binder.restoreStates(lazyState);
+      for (int i = 0; i < VISIBLE_ROWS; i++) {
+        binder.bind(rows.get(i), id(i));
+      }
+      lazy = Math.min(lazy, System.nanoTime() - start);
+
+      for (int i = 0; i < VISIBLE_ROWS; i++) {
+        assertEquals(id(i), i % OPEN_EVERY == 0, rows.get(i).isOpened());
+      }
+
+      final Bundle eagerState = recreate(saved);
+
+      start = System.nanoTime();
+      final Map<String, Integer> states = eagerCopy(eagerState);
+      for (int i = 0; i < VISIBLE_ROWS; i++) {
+        final Integer state = states.get(id(i));
+        if (state != null && state == SwipeLayout.STATE_OPEN) {
+          rows.get(i).open(false);
+        } else {
+          rows.get(i).close(false);
+        }
+      }
+      eager = Math.min(eager, System.nanoTime() - start);
+
+      assertEquals(SAVED_IDS, states.size());
+    }
+
+    assertTrue("lazy " + lazy + " ns, eager copy " + eager + " ns", lazy < eager);
+  }
+
+  @Test
+  public void restoreLeavesSavedStatesParcelledUntilFirstUse() throws Exception {
+    final Activity activity = TestRows.activity();
+    final SwipeLayout row = TestRows.create(activity, SwipeLayout.DRAG_EDGE_LEFT);
+    TestRows.layout(row);
+
+    final Bundle inState = recreate(savedState());
+    final Bundle states = inState.getBundle(BUNDLE_MAP_KEY);
+    assertTrue(isParcelled(states));
+
+    final ViewBinder binder = new ViewBinder();
+    binder.restoreStates(inState);
+    assertTrue(isParcelled(states));
+
+    binder.bind(row, id(0));
+    assertFalse(isParcelled(states));
+    assertTrue(row.isOpened());
+    assertEquals(SAVED_IDS / OPEN_EVERY, binder.getOpenCount());
+  }
+
+  private static Bundle savedState() {
+    final ViewBinder binder = new ViewBinder();
+    for (int i = 0; i < SAVED_IDS; i++) {
+      if (i % OPEN_EVERY == 0) {
+        binder.openLayout(id(i));
+      } else {
+        binder.closeLayout(id(i));
+      }
+    }
+
+    final Bundle outState = new Bundle();
+    binder.saveStates(outState);
+    return outState;
+  }
+
+  private static Bundle recreate(Bundle saved) {
+    final Parcel parcel = Parcel.obtain();
+    try {
+      saved.writeToParcel(parcel, 0);
+      parcel.setDataPosition(0);
+      return Bundle.CREATOR.createFromParcel(parcel);
+    } finally {
+      parcel.recycle();
+    }
+  }
+
+  private static Map<String, Integer> eagerCopy(Bundle inState) {
+    final Map<String, Integer> states = new HashMap<>();
+    final Bundle statesBundle = inState.getBundle(BUNDLE_MAP_KEY);
+
+    for (String key : statesBundle.keySet()) {
+      states.put(key, statesBundle.getInt(key));
+    }
+
+    return states;
+  }
+
+  private static boolean isParcelled(Bundle bundle) throws Exception {
+    final Method isParcelled = Bundle.class.getMethod("isParcelled");
+    return (Boolean) isParcelled.invoke(bundle);
+  }
+
+  private static String id(int index) {
+    return "row" + index;
+  }
+}
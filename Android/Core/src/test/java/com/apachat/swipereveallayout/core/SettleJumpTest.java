@@ -0,0 +1,149 @@
+package com.apachat.swipereveallayout.core;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.widget.FrameLayout;
+
+import com.apachat.swipereveallayout.core.interfaces.Swipe;
+import com.apachat.swipereveallayout.core.interfaces.SwipeStage;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class SettleJumpTest {
+  private Activity activity;
+  private FrameLayout root;
+  private ViewBinder binder;
+  private SwipeLayout layout;
+  private final List<String> events = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    activity = TestRows.activity();
+    root = new FrameLayout(activity);
+    activity.setContentView(root);
+
+    binder = new ViewBinder();
+    layout = TestRows.attach(root, SwipeLayout.DRAG_EDGE_LEFT);
+    binder.bind(layout, "row");
+    TestRows.frames(2);
+
+    layout.setSwipeListener(new Swipe() {
+      @Override
+      public void onClosed(SwipeLayout view) {
+        events.add("closed");
+      }
+
+      @Override
+      public void onOpened(SwipeLayout view) {
+        events.add("opened");
+      }
+
+      @Override
+      public void onSlide(SwipeLayout view, float slideOffset) {
+      }
+    });
+  }
+
+  @Test
+  public void releaseTowardClosedAtTheCapJumpsClosed() {
+    binder.setMaxConcurrentSettles(0);
+
+    drag(50, 80, 6, 50);
+    TestRows.frames(2);
+
+    assertTrue(layout.isClosed());
+    assertEquals(0, layout.getChildAt(1).getLeft());
+    assertEquals("closed", events.get(events.size() - 1));
+    assertFalse(events.contains("opened"));
+    assertEquals(0, binder.getOpenCount());
+  }
+
+  @Test
+  public void releaseTowardOpenAtTheCapJumpsOpen() {
+    binder.setMaxConcurrentSettles(0);
+
+    drag(50, 120, 7, 50);
+    TestRows.frames(2);
+
+    assertTrue(layout.isOpened());
+    assertEquals(TestRows.SECONDARY_SIZE, layout.getChildAt(1).getLeft());
+    assertEquals("opened", events.get(events.size() - 1));
+    assertEquals(1, binder.getOpenCount());
+  }
+
+  @Test
+  public void flingToFullAtTheCapNotifiesTheStage() {
+    final List<Integer> stages = new ArrayList<>();
+    layout.setFullSwipeEnabled(true);
+    layout.setSwipeStageListener(new SwipeStage() {
+      @Override
+      public void onStageChanged(SwipeLayout view, int previousStage, int stage) {
+        stages.add(stage);
+      }
+    });
+    binder.setMaxConcurrentSettles(0);
+
+    drag(50, 180, 4, 8);
+
+    assertEquals(SwipeLayout.STAGE_FULL, layout.getStage());
+    assertEquals(Integer.valueOf(SwipeLayout.STAGE_FULL), stages.get(stages.size() - 1));
+    assertEquals(TestRows.ROW_WIDTH, layout.getChildAt(1).getLeft());
+  }
+
+  @Test
+  public void detachedRowStopsSettling() {
+    binder.openLayout("row");
+    TestRows.frames(1);
+    assertTrue(layout.isSettling());
+
+    root.removeView(layout);
+    TestRows.frames(60);
+
+    assertFalse(layout.isSettling());
+    assertTrue(layout.isOpened());
+  }
+
+  @Test
+  public void replayOfBoundRowSettles() throws IOException {
+    final GestureReplayer.Report report = TestRows.gesture("fling_open").replay(layout, TestRows.clock());
+
+    assertTrue(report.getSettleFrames() < 120);
+    assertTrue(layout.isOpened());
+  }
+
+  private void drag(float fromX, float toX, int steps, int stepMillis) {
+    final long downTime = SystemClock.uptimeMillis();
+    touch(MotionEvent.ACTION_DOWN, fromX, downTime);
+
+    for (int step = 1; step <= steps; step++) {
+      SystemClock.sleep(stepMillis);
+      touch(MotionEvent.ACTION_MOVE, fromX + (toX - fromX) * step / steps, downTime);
+    }
+
+    if (stepMillis > 16) {
+      SystemClock.sleep(120);
+      touch(MotionEvent.ACTION_MOVE, toX, downTime);
+    }
+
+    touch(MotionEvent.ACTION_UP, toX, downTime);
+  }
+
+  private void touch(int action, float x, long downTime) {
+    final MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, x, 50, 0);
+    layout.dispatchTouchEvent(event);
+    event.recycle();
+  }
+}
@@ -0,0 +1,267 @@
+package com.apachat.swipereveallayout.core;
+
+import com.apachat.swipereveallayout.core.interfaces.StateObserver;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class StateCommandQueueStressTest {
+  private static final int THREADS = 8;
+  private static final int IDS_PER_THREAD = 50;
+  private static final int COMMANDS_PER_ID = 100;
+
+  private ViewBinder binder;
+  private RecordingObserver observer;
+
+  @Before
+  public void setUp() {
+    binder = new ViewBinder();
+    observer = new RecordingObserver();
+    binder.addStateObserver(observer);
+  }
+
+  @Test
+  public void lastCommandPerIdWinsAndIsDeliveredOnce() throws InterruptedException {
+    final Map<String, Boolean> expected = new HashMap<>();
+    final List<Thread> threads = new ArrayList<>();
+    final CountDownLatch start = new CountDownLatch(1);
+
+    for (int t = 0; t < THREADS; t++) {
+      final Map<String, Boolean> last = new HashMap<>();
+      final String prefix = "t" + t + "-";
+      final Random random = new Random(t);
+
+      for (int k = 0; k < IDS_PER_THREAD; k++) {
+        last.put(prefix + k, false);
+      }
+      expected.putAll(last);
+
+      final List<String> ids = new ArrayList<>(last.keySet());
+      final boolean[][] plan = new boolean[ids.size()][COMMANDS_PER_ID];
+      for (int k = 0; k < ids.size(); k++) {
+        for (int c = 0; c < COMMANDS_PER_ID; c++) {
+          plan[k][c] = random.nextBoolean();
+        }
+        expected.put(ids.get(k), plan[k][COMMANDS_PER_ID - 1]);
+      }
+
+      threads.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          await(start);
+
+          for (int c = 0; c < COMMANDS_PER_ID; c++) {
+            for (int k = 0; k < ids.size(); k++) {
+              if (plan[k][c]) {
+                binder.openLayout(ids.get(k));
+              } else {
+                binder.closeLayout(ids.get(k));
+              }
+            }
+          }
+        }
+      }));
+    }
+
+    runAll(threads, start);
+    TestRows.frames(3);
+
+    assertEquals(1, observer.batches);
+    assertEquals(expected.size(), observer.deliveries);
+
+    int open = 0;
+    for (Map.Entry<String, Boolean> entry : expected.entrySet()) {
+      final int state = entry.getValue() ? SwipeLayout.STATE_OPEN : SwipeLayout.STATE_CLOSE;
+      assertEquals(entry.getKey(), Integer.valueOf(state), observer.states.get(entry.getKey()));
+      if (entry.getValue()) {
+        open++;
+      }
+    }
+
+    assertEquals(open, binder.getOpenCount());
+  }
+
+  @Test
+  public void closeAllDropsEarlierCommandsOnly() throws InterruptedException {
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Thread> threads = new ArrayList<>();
+
+    threads.add(new Thread(new Runnable() {
+      @Override
+      public void run() {
+        await(start);
+        binder.openLayout("a");
+        binder.openLayout("b");
+        binder.closeAll();
+        binder.openLayout("c");
+      }
+    }));
+
+    runAll(threads, start);
+    TestRows.frames(3);
+
+    assertFalse(observer.states.containsKey("a"));
+    assertFalse(observer.states.containsKey("b"));
+    assertEquals(Integer.valueOf(SwipeLayout.STATE_OPEN), observer.states.get("c"));
+    assertEquals(1, binder.getOpenCount());
+  }
+
+  @Test
+  public void lockCommandsCoalescePerId() throws InterruptedException {
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Thread> threads = new ArrayList<>();
+    final Set<String> locked = new HashSet<>();
+
+    for (int t = 0; t < THREADS; t++) {
+      final String prefix = "t" + t + "-";
+      final boolean finalLock = t % 2 == 0;
+
+      for (int k = 0; k < IDS_PER_THREAD; k++) {
+        if (finalLock) {
+          locked.add(prefix + k);
+        }
+      }
+
+      threads.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          await(start);
+
+          for (int c = 0; c < COMMANDS_PER_ID; c++) {
+            for (int k = 0; k < IDS_PER_THREAD; k++) {
+              if (c % 2 == 0) {
+                binder.lockSwipe(prefix + k);
+              } else {
+                binder.unlockSwipe(prefix + k);
+              }
+            }
+          }
+
+          for (int k = 0; k < IDS_PER_THREAD; k++) {
+            if (finalLock) {
+              binder.lockSwipe(prefix + k);
+            } else {
+              binder.unlockSwipe(prefix + k);
+            }
+          }
+        }
+      }));
+    }
+
+    runAll(threads, start);
+    TestRows.frames(2);
+
+    assertEquals(locked.size(), binder.getLockedCount());
+  }
+
+  @Test
+  public void postingWhileDrainingLosesNothing() throws InterruptedException {
+    final AtomicBoolean running = new AtomicBoolean(true);
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Thread> threads = new ArrayList<>();
+    final Map<String, Boolean> expected = new HashMap<>();
+
+    for (int t = 0; t < THREADS; t++) {
+      final String id = "row" + t;
+      final boolean finalOpen = t % 3 != 0;
+      expected.put(id, finalOpen);
+
+      threads.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          await(start);
+
+          boolean open = false;
+          while (running.get()) {
+            open = !open;
+            if (open) {
+              binder.openLayout(id);
+            } else {
+              binder.closeLayout(id);
+            }
+          }
+
+          if (finalOpen) {
+            binder.openLayout(id);
+          } else {
+            binder.closeLayout(id);
+          }
+        }
+      }));
+    }
+
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    start.countDown();
+
+    for (int frame = 0; frame < 50; frame++) {
+      TestRows.frames(1);
+    }
+
+    running.set(false);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    TestRows.frames(3);
+
+    assertTrue(observer.batches > 1);
+    for (Map.Entry<String, Boolean> entry : expected.entrySet()) {
+      final int state = entry.getValue() ? SwipeLayout.STATE_OPEN : SwipeLayout.STATE_CLOSE;
+      assertEquals(entry.getKey(), Integer.valueOf(state), observer.states.get(entry.getKey()));
+    }
+  }
+
+  private static void runAll(List<Thread> threads, CountDownLatch start) throws InterruptedException {
+    for (Thread thread : threads) {
+      thread.start();
+    }
+
+    start.countDown();
+
+    for (Thread thread : threads) {
+      thread.join();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static final class RecordingObserver implements StateObserver {
+    final Map<String, Integer> states = new HashMap<>();
+    int batches = 0;
+    int deliveries = 0;
+
+    @Override
+    public void onStatesChanged(List<StateChange> changes) {
+      batches++;
+      deliveries += changes.size();
+
+      for (StateChange change : changes) {
+        states.put(change.getId(), change.getNewState());
+      }
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package com.apachat.swipereveallayout.core;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class SwipeMetricsReplayTest {
+  @Test
+  public void completedDragIsCounted() throws IOException {
+    final SwipeMetrics metrics = replay("completed", "fling_open");
+
+    assertEquals(1, metrics.getDragsStarted());
+    assertEquals(1, metrics.getDragsCompleted());
+    assertEquals(0, metrics.getDragsCancelled());
+    assertEquals(1.0f, metrics.getThresholdScale(), 0.001f);
+  }
+
+  @Test
+  public void cancelledDragRaisesTheScale() throws IOException {
+    final SwipeMetrics metrics = replay("cancelled", "short_cancel");
+
+    assertEquals(1, metrics.getDragsStarted());
+    assertEquals(1, metrics.getDragsCancelled());
+    assertTrue(metrics.getThresholdScale() > 1.0f);
+  }
+
+  @Test
+  public void interruptedDragLowersTheScale() throws IOException {
+    final SwipeMetrics metrics = replay("interrupted", "parent_cancel");
+
+    assertEquals(1, metrics.getDragsStarted());
+    assertEquals(1, metrics.getDragsInterrupted());
+    assertTrue(metrics.getThresholdScale() < 1.0f);
+  }
+
+  @Test
+  public void tapIsNotADrag() throws IOException {
+    final SwipeMetrics metrics = replay("tap", "tap");
+
+    assertEquals(0, metrics.getDragsStarted());
+    assertEquals(1.0f, metrics.getThresholdScale(), 0.001f);
+  }
+
+  @Test
+  public void repeatedCancelsClampTheScale() throws IOException {
+    SwipeMetrics metrics = null;
+    for (int i = 0; i < 50; i++) {
+      metrics = replay("repeated", "short_cancel");
+      assertEquals(i + 1, metrics.getDragsStarted());
+    }
+
+    assertEquals(50, metrics.getDragsStarted());
+    assertEquals(50, metrics.getDragsCancelled());
+    assertEquals(SwipeMetrics.MAX_SCALE, metrics.getThresholdScale(), 0.001f);
+  }
+
+  @Test
+  public void repeatedInterruptionsClampTheScale() throws IOException {
+    SwipeMetrics metrics = null;
+    for (int i = 0; i < 50; i++) {
+      metrics = replay("interrupted-repeated", "parent_cancel");
+    }
+
+    assertEquals(50, metrics.getDragsInterrupted());
+    assertEquals(SwipeMetrics.MIN_SCALE, metrics.getThresholdScale(), 0.001f);
+  }
+
+  @Test
+  public void registryKeepsMetricsThatAreStillHeld() {
+    final SwipeMetrics first = SwipeMetrics.get("bounded-0");
+
+    for (int i = 1; i <= SwipeMetrics.MAX_KEYS; i++) {
+      SwipeMetrics.get("bounded-" + i);
+    }
+
+    final SwipeMetrics recent = SwipeMetrics.get("bounded-" + SwipeMetrics.MAX_KEYS);
+    assertSame(recent, SwipeMetrics.get("bounded-" + SwipeMetrics.MAX_KEYS));
+    assertSame(first, SwipeMetrics.get("bounded-0"));
+  }
+
+  @Test
+  public void layoutsKeepSharingMetricsAfterTheirKeyIsEvicted() throws IOException {
+    final String key = SwipeMetricsReplayTest.class.getName() + ".evicted";
+    final SwipeLayout layout = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    layout.setAdaptiveThresholds(true, key);
+
+    for (int i = 0; i <= SwipeMetrics.MAX_KEYS; i++) {
+      SwipeMetrics.get("evicting-" + i);
+    }
+
+    TestRows.gesture("short_cancel").replay(layout, TestRows.clock());
+
+    final SwipeLayout next = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    next.setAdaptiveThresholds(true, key);
+
+    assertSame(layout.getSwipeMetrics(), next.getSwipeMetrics());
+    assertSame(layout.getSwipeMetrics(), SwipeMetrics.get(key));
+    assertEquals(1, SwipeMetrics.get(key).getDragsCancelled());
+  }
+
+  private static SwipeMetrics replay(String key, String gesture) throws IOException {
+    final SwipeLayout layout = TestRows.attach(TestRows.activity(), SwipeLayout.DRAG_EDGE_LEFT);
+    layout.setAdaptiveThresholds(true, SwipeMetricsReplayTest.class.getName() + "." + key);
+
+    TestRows.gesture(gesture).replay(layout, TestRows.clock());
+    return layout.getSwipeMetrics();
+  }
+}
@@ -0,0 +1,37 @@
+package com.apachat.swipereveallayout.core;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+final class SynchronizedViewBinder {
+  private final Map<String, Integer> mapStates = Collections.synchronizedMap(new HashMap<String, Integer>());
+  private final Map<String, SwipeLayout> mapLayouts = Collections.synchronizedMap(new HashMap<String, SwipeLayout>());
+  private final Object stateChangeLock = new Object();
+
+  void openLayout(String id) {
+    synchronized (stateChangeLock) {
+      mapStates.put(id, SwipeLayout.STATE_OPEN);
+
+      final SwipeLayout layout = mapLayouts.get(id);
+      if (layout != null) {
+        layout.open(true);
+      }
+    }
+  }
+
+  void closeLayout(String id) {
+    synchronized (stateChangeLock) {
+      mapStates.put(id, SwipeLayout.STATE_CLOSE);
+
+      final SwipeLayout layout = mapLayouts.get(id);
+      if (layout != null) {
+        layout.close(true);
+      }
+    }
+  }
+
+  int size() {
+    return mapStates.size();
+  }
+}
@@ -0,0 +1,143 @@
+package com.apachat.swipereveallayout.core;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.robolectric.Robolectric;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+import static org.robolectric.Shadows.shadowOf;
+
+final class TestRows {
+  static final int ROW_WIDTH = 400;
+  static final int ROW_HEIGHT = 100;
+  static final int SECONDARY_SIZE = 100;
+
+  private TestRows() {
+  }
+
+  static Activity activity() {
+    return Robolectric.buildActivity(Activity.class).setup().get();
+  }
+
+  static SwipeLayout create(Context context, int dragEdges) {
+    final SwipeLayout layout = new SwipeLayout(context);
+
+    for (int index = 0; index < 4; index++) {
+      final int edge = 1 << index;
+      if ((dragEdges & edge) == 0) {
+        continue;
+      }
+
+      final boolean horizontal = edge == SwipeLayout.DRAG_EDGE_LEFT || edge == SwipeLayout.DRAG_EDGE_RIGHT;
+      layout.addView(new View(context), horizontal
+        ? new ViewGroup.LayoutParams(SECONDARY_SIZE, ViewGroup.LayoutParams.MATCH_PARENT)
+        : new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, SECONDARY_SIZE));
+    }
+
+    layout.addView(new View(context), new ViewGroup.LayoutParams(
+      ViewGroup.LayoutParams.MATCH_PARENT,
+      ViewGroup.LayoutParams.MATCH_PARENT
+    ));
+    layout.setDragEdge(dragEdges);
+
+    return layout;
+  }
+
+  static SwipeLayout attach(Activity activity, int dragEdges) {
+    final FrameLayout root = new FrameLayout(activity);
+    activity.setContentView(root);
+    return attach(root, dragEdges);
+  }
+
+  static SwipeLayout attach(ViewGroup parent, int dragEdges) {
+    final SwipeLayout layout = create(parent.getContext(), dragEdges);
+    parent.addView(layout, new FrameLayout.LayoutParams(ROW_WIDTH, ROW_HEIGHT));
+    layout(layout);
+    return layout;
+  }
+
+  static void layout(View view) {
+    view.measure(
+      View.MeasureSpec.makeMeasureSpec(ROW_WIDTH, View.MeasureSpec.EXACTLY),
+      View.MeasureSpec.makeMeasureSpec(ROW_HEIGHT, View.MeasureSpec.EXACTLY)
+    );
+    view.layout(0, 0, ROW_WIDTH, ROW_HEIGHT);
+  }
+
+  static void frames(int count) {
+    for (int i = 0; i < count; i++) {
+      shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(16));
+    }
+  }
+
+  static GestureReplayer.FrameClock clock() {
+    return new GestureReplayer.FrameClock() {
+      @Override
+      public void advance(long millis) {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(millis));
+      }
+    };
+  }
+
+  static GestureReplayer gesture(String name) throws IOException {
+    final InputStream in = TestRows.class.getClassLoader().getResourceAsStream("gestures/" + name + ".gesture");
+    if (in == null) {
+      throw new FileNotFoundException("gestures/" + name + ".gesture");
+    }
+
+    try {
+      return new GestureReplayer(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  static int settle(SwipeLayout layout) {
+    int frames = 0;
+
+    while (frames < 100 && layout.isSettling()) {
+      frames(1);
+      layout.computeScroll();
+      frames++;
+    }
+
+    frames(1);
+    return frames;
+  }
+
+  static void touch(View view, int action, float x, float y, long downTime) {
+    final MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, x, y, 0);
+    view.dispatchTouchEvent(event);
+    event.recycle();
+  }
+
+  static void swipe(View view, float fromX, float fromY, float toX, float toY, int steps) {
+    final long downTime = SystemClock.uptimeMillis();
+    touch(view, MotionEvent.ACTION_DOWN, fromX, fromY, downTime);
+
+    for (int step = 1; step <= steps; step++) {
+      frames(1);
+      touch(
+        view,
+        MotionEvent.ACTION_MOVE,
+        fromX + (toX - fromX) * step / steps,
+        fromY + (toY - fromY) * step / steps,
+        downTime
+      );
+    }
+
+    frames(1);
+    touch(view, MotionEvent.ACTION_UP, toX, toY, downTime);
+  }
+}
@@ -0,0 +1,140 @@
+package com.apachat.swipereveallayout.core;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.widget.LinearLayout;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class ViewBinderEdgeTest {
+  private static final int EDGES = SwipeLayout.DRAG_EDGE_LEFT | SwipeLayout.DRAG_EDGE_RIGHT;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private LinearLayout root;
+
+  @Before
+  public void setUp() {
+    final Activity activity = TestRows.activity();
+    root = new LinearLayout(activity);
+    root.setOrientation(LinearLayout.VERTICAL);
+    activity.setContentView(root);
+  }
+
+  @Test
+  public void restoredRowOpensFromItsSavedEdge() {
+    final ViewBinder previous = new ViewBinder();
+    openFromRight(previous, "a");
+
+    final Bundle saved = new Bundle();
+    previous.saveStates(saved);
+
+    final ViewBinder binder = new ViewBinder();
+    binder.restoreStates(saved);
+
+    final SwipeLayout layout = row();
+    binder.bind(layout, "a");
+    TestRows.frames(2);
+
+    assertOpenFromRight(layout);
+  }
+
+  @Test
+  public void recycledLayoutTakesTheEdgeOfItsNewId() {
+    final ViewBinder binder = new ViewBinder();
+    final SwipeLayout right = openFromRight(binder, "a");
+
+    final SwipeLayout left = row();
+    binder.bind(left, "b");
+    binder.openLayout("b");
+    TestRows.frames(60);
+    assertEquals(SwipeLayout.DRAG_EDGE_LEFT, left.getDragEdge());
+
+    binder.bind(right, "b");
+    binder.bind(left, "a");
+    TestRows.frames(2);
+
+    assertEquals(SwipeLayout.DRAG_EDGE_LEFT, right.getDragEdge());
+    assertTrue(right.isOpened());
+    assertOpenFromRight(left);
+  }
+
+  @Test
+  public void storedRowOpensFromItsSavedEdge() throws Exception {
+    final File file = folder.newFile();
+
+    final ViewBinder previous = new ViewBinder();
+    final FileStateStore previousStore = new FileStateStore(file);
+    previous.setStateStore(previousStore);
+    openFromRight(previous, "a");
+    previous.saveStates(new Bundle());
+    previousStore.awaitWrites();
+
+    final ViewBinder binder = new ViewBinder();
+    final FileStateStore store = new FileStateStore(file);
+    store.awaitWrites();
+    binder.setStateStore(store);
+
+    final SwipeLayout layout = row();
+    binder.bind(layout, "a");
+    TestRows.frames(2);
+
+    assertOpenFromRight(layout);
+  }
+
+  @Test
+  public void packedStatesKeepStateAndEdge() {
+    for (int state = SwipeLayout.STATE_CLOSE; state <= SwipeLayout.STATE_DRAGGING; state++) {
+      for (int edge = SwipeLayout.DRAG_EDGE_LEFT; edge <= SwipeLayout.DRAG_EDGE_BOTTOM; edge <<= 1) {
+        final int saved = ViewBinder.packState(state, edge);
+        assertEquals(state, ViewBinder.stateOf(saved));
+        assertEquals(edge, ViewBinder.edgeOf(saved));
+
+        final int locked = ViewBinder.packState(state, edge, true);
+        assertEquals(state, ViewBinder.stateOf(locked));
+        assertEquals(edge, ViewBinder.edgeOf(locked));
+        assertTrue(ViewBinder.isLockedState(locked));
+        assertFalse(ViewBinder.isLockedState(saved));
+      }
+
+      assertEquals(state, ViewBinder.packState(state, null));
+      assertEquals(0, ViewBinder.edgeOf(state));
+    }
+  }
+
+  private SwipeLayout openFromRight(ViewBinder binder, String id) {
+    final SwipeLayout layout = row();
+    binder.bind(layout, id);
+    layout.setActiveDragEdge(SwipeLayout.DRAG_EDGE_RIGHT);
+    TestRows.frames(2);
+
+    binder.openLayout(id);
+    TestRows.frames(60);
+    assertOpenFromRight(layout);
+
+    return layout;
+  }
+
+  private static void assertOpenFromRight(SwipeLayout layout) {
+    assertTrue(layout.isOpened());
+    assertEquals(SwipeLayout.DRAG_EDGE_RIGHT, layout.getDragEdge());
+    assertEquals(-TestRows.SECONDARY_SIZE, layout.getChildAt(layout.getChildCount() - 1).getLeft());
+  }
+
+  private SwipeLayout row() {
+    return TestRows.attach(root, EDGES);
+  }
+}
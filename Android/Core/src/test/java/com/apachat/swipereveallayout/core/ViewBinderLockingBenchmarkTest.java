@@ -0,0 +1,75 @@
+package com.apachat.swipereveallayout.core;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class ViewBinderLockingBenchmarkTest {
+  private static final int IDS = 1000;
+  private static final int ROUNDS = 50;
+  private static final int WARMUP_ROUNDS = 10;
+  private static final int MAX_SLOWDOWN = 5;
+
+  @Test
+  public void mainThreadStateChanges() {
+    final String[] ids = ids();
+    final ViewBinder binder = new ViewBinder();
+    final SynchronizedViewBinder legacy = new SynchronizedViewBinder();
+
+    for (int round = 0; round < WARMUP_ROUNDS; round++) {
+      toggle(binder, ids);
+      toggle(legacy, ids);
+    }
+
+    long start = System.nanoTime();
+    for (int round = 0; round < ROUNDS; round++) {
+      toggle(binder, ids);
+    }
+    final long confined = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (int round = 0; round < ROUNDS; round++) {
+      toggle(legacy, ids);
+    }
+    final long locked = System.nanoTime() - start;
+
+    assertEquals(0, binder.getOpenCount());
+    assertEquals(IDS, legacy.size());
+    assertTrue("confined " + confined + " ns, synchronized " + locked + " ns",
+      confined < locked * MAX_SLOWDOWN);
+  }
+
+  private static void toggle(ViewBinder binder, String[] ids) {
+    for (String id : ids) {
+      binder.openLayout(id);
+    }
+
+    for (String id : ids) {
+      binder.closeLayout(id);
+    }
+  }
+
+  private static void toggle(SynchronizedViewBinder binder, String[] ids) {
+    for (String id : ids) {
+      binder.openLayout(id);
+    }
+
+    for (String id : ids) {
+      binder.closeLayout(id);
+    }
+  }
+
+  private static String[] ids() {
+    final String[] ids = new String[IDS];
+
+    for (int i = 0; i < IDS; i++) {
+      ids[i] = "row" + i;
+    }
+
+    return ids;
+  }
+}
@@ -0,0 +1,110 @@
+package com.apachat.swipereveallayout.core;
+
+import android.os.Bundle;
+
+import com.apachat.swipereveallayout.core.interfaces.StateObserver;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+public class ViewBinderOpenCountTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void restoredOpenIdsAreCountedBeforeBind() {
+    final ViewBinder binder = new ViewBinder();
+    binder.restoreStates(saved(10, 3));
+
+    assertEquals(3, binder.getOpenCount());
+
+    binder.closeLayout("row0");
+    assertEquals(2, binder.getOpenCount());
+
+    binder.openLayout("row9");
+    assertEquals(3, binder.getOpenCount());
+  }
+
+  @Test
+  public void stateChangesBeforeTheFirstCountAreNotCountedTwice() {
+    final ViewBinder binder = new ViewBinder();
+    binder.restoreStates(saved(10, 3));
+
+    binder.closeLayout("row0");
+    binder.openLayout("row1");
+    binder.openLayout("row9");
+
+    assertEquals(3, binder.getOpenCount());
+  }
+
+  @Test
+  public void storedOpenIdsAreCounted() throws Exception {
+    final FileStateStore previous = new FileStateStore(folder.newFile());
+    previous.put("a", SwipeLayout.STATE_OPEN);
+    previous.put("b", SwipeLayout.STATE_OPEN);
+    previous.put("c", SwipeLayout.STATE_CLOSE);
+
+    final ViewBinder binder = new ViewBinder();
+    binder.setStateStore(previous);
+
+    assertEquals(2, binder.getOpenCount());
+
+    binder.closeLayout("a");
+    assertEquals(1, binder.getOpenCount());
+  }
+
+  @Test
+  public void closingARestoredRowReportsItsRestoredState() {
+    final ViewBinder binder = new ViewBinder();
+    binder.restoreStates(saved(10, 3));
+
+    final List<StateChange> changes = new ArrayList<>();
+    binder.addStateObserver(new StateObserver() {
+      @Override
+      public void onStatesChanged(List<StateChange> batch) {
+        changes.addAll(batch);
+      }
+    });
+
+    binder.closeLayout("row0");
+    TestRows.frames(2);
+
+    assertEquals(1, changes.size());
+    assertEquals(SwipeLayout.STATE_OPEN, changes.get(0).getOldState());
+    assertEquals(SwipeLayout.STATE_CLOSE, changes.get(0).getNewState());
+  }
+
+  @Test
+  public void closeAllResetsRestoredCounts() {
+    final ViewBinder binder = new ViewBinder();
+    binder.restoreStates(saved(10, 3));
+
+    binder.closeAll();
+    assertEquals(0, binder.getOpenCount());
+  }
+
+  private static Bundle saved(int ids, int open) {
+    final ViewBinder binder = new ViewBinder();
+
+    for (int i = 0; i < ids; i++) {
+      if (i < open) {
+        binder.openLayout("row" + i);
+      } else {
+        binder.closeLayout("row" + i);
+      }
+    }
+
+    final Bundle saved = new Bundle();
+    binder.saveStates(saved);
+    return saved;
+  }
+}
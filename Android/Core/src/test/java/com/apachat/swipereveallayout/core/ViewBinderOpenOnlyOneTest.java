@@ -0,0 +1,204 @@
+package com.apachat.swipereveallayout.core;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.widget.LinearLayout;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class ViewBinderOpenOnlyOneTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private LinearLayout root;
+
+  @Before
+  public void setUp() {
+    final Activity activity = TestRows.activity();
+    root = new LinearLayout(activity);
+    root.setOrientation(LinearLayout.VERTICAL);
+    activity.setContentView(root);
+  }
+
+  @Test
+  public void restoredOpenRowClosesWhenAnotherRowOpens() {
+    final Bundle saved = new Bundle();
+    final ViewBinder previous = new ViewBinder();
+    previous.openLayout("a");
+    previous.saveStates(saved);
+
+    final ViewBinder binder = new ViewBinder();
+    binder.setOpenOnlyOne(true);
+    binder.restoreStates(saved);
+
+    final SwipeLayout b = row();
+    binder.bind(b, "b");
+    binder.openLayout("b");
+    TestRows.frames(60);
+
+    final SwipeLayout a = row();
+    binder.bind(a, "a");
+
+    assertTrue(a.isClosed());
+    assertTrue(b.isOpened());
+    assertEquals(1, binder.getOpenCount());
+  }
+
+  @Test
+  public void restoreReplacesTheStateOfABinderWithAnOpenRow() {
+    final Bundle saved = new Bundle();
+    final ViewBinder previous = new ViewBinder();
+    previous.openLayout("a");
+    previous.saveStates(saved);
+
+    final ViewBinder binder = new ViewBinder();
+    binder.setOpenOnlyOne(true);
+
+    final SwipeLayout x = row();
+    binder.bind(x, "x");
+    binder.openLayout("x");
+    binder.lockSwipe("x");
+    TestRows.frames(60);
+    assertTrue(x.isOpened());
+
+    binder.restoreStates(saved);
+
+    assertTrue(x.isClosed());
+    assertFalse(x.isDragLocked());
+    assertEquals(1, binder.getOpenCount());
+    assertEquals(0, binder.getLockedCount());
+
+    final SwipeLayout a = row();
+    binder.bind(a, "a");
+    assertTrue(a.isOpened());
+
+    final SwipeLayout b = row();
+    binder.bind(b, "b");
+    binder.openLayout("b");
+    TestRows.frames(60);
+
+    assertTrue(b.isOpened());
+    assertTrue(a.isClosed());
+    assertTrue(x.isClosed());
+    assertEquals(1, binder.getOpenCount());
+  }
+
+  @Test
+  public void storedOpenRowClosesWhenAnotherRowOpens() throws Exception {
+    final File file = folder.newFile();
+    final FileStateStore previous = new FileStateStore(file);
+    previous.put("a", SwipeLayout.STATE_OPEN);
+    previous.flush();
+    previous.awaitWrites();
+
+    final ViewBinder binder = new ViewBinder();
+    binder.setOpenOnlyOne(true);
+    final FileStateStore store = new FileStateStore(file);
+    store.awaitWrites();
+    binder.setStateStore(store);
+
+    final SwipeLayout b = row();
+    binder.bind(b, "b");
+    binder.openLayout("b");
+    TestRows.frames(60);
+
+    final SwipeLayout a = row();
+    binder.bind(a, "a");
+
+    assertTrue(a.isClosed());
+    assertTrue(b.isOpened());
+    assertEquals(1, binder.getOpenCount());
+  }
+
+  @Test
+  public void enablingOpenOnlyOneClosesExtraRows() {
+    final ViewBinder binder = new ViewBinder();
+    final SwipeLayout a = row();
+    final SwipeLayout b = row();
+    final SwipeLayout c = row();
+    binder.bind(a, "a");
+    binder.bind(b, "b");
+    binder.bind(c, "c");
+
+    binder.openLayout("a");
+    binder.openLayout("b");
+    binder.openLayout("c");
+    TestRows.frames(60);
+    assertEquals(3, binder.getOpenCount());
+
+    binder.setOpenOnlyOne(true);
+    TestRows.frames(60);
+
+    assertEquals(1, binder.getOpenCount());
+    assertEquals(1, (a.isOpened() ? 1 : 0) + (b.isOpened() ? 1 : 0) + (c.isOpened() ? 1 : 0));
+
+    binder.openLayout("c");
+    TestRows.frames(60);
+
+    assertTrue(c.isOpened());
+    assertTrue(a.isClosed());
+    assertTrue(b.isClosed());
+    assertEquals(1, binder.getOpenCount());
+  }
+
+  @Test
+  public void enablingOpenOnlyOneFromWorkerThreadIsApplied() throws InterruptedException {
+    final ViewBinder binder = new ViewBinder();
+    final SwipeLayout a = row();
+    final SwipeLayout b = row();
+    binder.bind(a, "a");
+    binder.bind(b, "b");
+    binder.openLayout("a");
+    binder.openLayout("b");
+    TestRows.frames(60);
+
+    final Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        binder.setOpenOnlyOne(true);
+      }
+    });
+    thread.start();
+    thread.join();
+    TestRows.frames(60);
+
+    assertEquals(1, binder.getOpenCount());
+    assertTrue(a.isClosed() != b.isClosed());
+  }
+
+  @Test
+  public void perGroupScopeKeepsOneRowPerGroup() {
+    final ViewBinder binder = new ViewBinder();
+    final SwipeLayout a = row();
+    final SwipeLayout b = row();
+    binder.bind(a, "a", "first");
+    binder.bind(b, "b", "second");
+    binder.openLayout("a");
+    binder.openLayout("b");
+    TestRows.frames(60);
+
+    binder.setOpenOnlyOneScope(ViewBinder.OPEN_ONLY_ONE_PER_GROUP);
+    binder.setOpenOnlyOne(true);
+    TestRows.frames(60);
+
+    assertTrue(a.isOpened());
+    assertTrue(b.isOpened());
+    assertEquals(2, binder.getOpenCount());
+  }
+
+  private SwipeLayout row() {
+    return TestRows.attach(root, SwipeLayout.DRAG_EDGE_LEFT);
+  }
+}
@@ -0,0 +1,238 @@
+package com.apachat.swipereveallayout.core;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.widget.LinearLayout;
+
+import com.apachat.swipereveallayout.core.interfaces.StateStore;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class ViewBinderStoreTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private LinearLayout root;
+
+  @Before
+  public void setUp() {
+    final Activity activity = TestRows.activity();
+    root = new LinearLayout(activity);
+    root.setOrientation(LinearLayout.VERTICAL);
+    activity.setContentView(root);
+  }
+
+  @Test
+  public void rowsBoundBeforeTheStoreLoadsPickUpStoredStates() {
+    final SlowStore store = new SlowStore();
+    store.stored.put("a", ViewBinder.packState(SwipeLayout.STATE_OPEN, null, true));
+
+    final ViewBinder binder = new ViewBinder();
+    binder.setStateStore(store);
+
+    final SwipeLayout a = row();
+    binder.bind(a, "a");
+
+    assertTrue(a.isClosed());
+    assertFalse(a.isDragLocked());
+
+    store.load();
+    TestRows.frames(60);
+
+    assertTrue(a.isOpened());
+    assertTrue(a.isDragLocked());
+    assertEquals(1, binder.getOpenCount());
+    assertEquals(1, binder.getLockedCount());
+  }
+
+  @Test
+  public void rowsChangedBeforeTheStoreLoadsKeepTheirNewState() {
+    final SlowStore store = new SlowStore();
+    store.stored.put("a", SwipeLayout.STATE_OPEN);
+
+    final ViewBinder binder = new ViewBinder();
+    binder.setStateStore(store);
+
+    final SwipeLayout a = row();
+    binder.bind(a, "a");
+    binder.closeLayout("a");
+
+    store.load();
+    TestRows.frames(60);
+
+    assertTrue(a.isClosed());
+    assertEquals(0, binder.getOpenCount());
+  }
+
+  @Test
+  public void locksSurviveAStoreReopen() throws Exception {
+    final File file = folder.newFile();
+
+    final ViewBinder previous = new ViewBinder();
+    previous.setStateStore(new FileStateStore(file));
+    previous.bind(row(), "a");
+    previous.lockSwipe("a", "b");
+    previous.unlockSwipe("b");
+    previous.saveStates(new Bundle());
+
+    final FileStateStore store = new FileStateStore(file);
+    store.awaitWrites();
+
+    final ViewBinder binder = new ViewBinder();
+    binder.setStateStore(store);
+    assertEquals(1, binder.getLockedCount());
+
+    final SwipeLayout a = row();
+    binder.bind(a, "a");
+    assertTrue(a.isDragLocked());
+
+    final SwipeLayout b = row();
+    binder.bind(b, "b");
+    assertFalse(b.isDragLocked());
+  }
+
+  @Test
+  public void locksSurviveABundleRestore() {
+    final ViewBinder previous = new ViewBinder();
+    previous.lockSwipe("a");
+    final Bundle saved = new Bundle();
+    previous.saveStates(saved);
+
+    final ViewBinder binder = new ViewBinder();
+    binder.restoreStates(saved);
+    assertEquals(1, binder.getLockedCount());
+
+    final SwipeLayout a = row();
+    binder.bind(a, "a");
+    assertTrue(a.isDragLocked());
+  }
+
+  @Test
+  public void retainPrunesTheStore() throws Exception {
+    final File file = folder.newFile();
+    final FileStateStore store = new FileStateStore(file);
+    store.awaitWrites();
+
+    final ViewBinder binder = new ViewBinder();
+    binder.setStateStore(store);
+    binder.openLayout("a");
+    binder.openLayout("b");
+
+    binder.retainStates(Collections.singleton("a"));
+    assertNull(store.get("b"));
+
+    binder.saveStates(new Bundle());
+    store.awaitWrites();
+
+    final FileStateStore reopened = new FileStateStore(file);
+    reopened.awaitWrites();
+    assertEquals(Integer.valueOf(SwipeLayout.STATE_OPEN), reopened.get("a"));
+    assertNull(reopened.get("b"));
+  }
+
+  private SwipeLayout row() {
+    return TestRows.attach(root, SwipeLayout.DRAG_EDGE_LEFT);
+  }
+
+  private static final class SlowStore implements StateStore {
+    final Map<String, Integer> stored = new HashMap<>();
+    final Map<String, Integer> written = new HashMap<>();
+    boolean loaded;
+    Runnable listener;
+
+    void load() {
+      loaded = true;
+      if (listener != null) {
+        listener.run();
+      }
+    }
+
+    @Override
+    public Integer get(String id) {
+      final Integer state = written.get(id);
+      if (state != null) {
+        return state;
+      }
+      return loaded ? stored.get(id) : null;
+    }
+
+    @Override
+    public boolean isLoaded() {
+      return loaded;
+    }
+
+    @Override
+    public void setLoadListener(Runnable listener) {
+      this.listener = listener;
+    }
+
+    @Override
+    public Collection<String> getOpenIds() {
+      return ids(false);
+    }
+
+    @Override
+    public Collection<String> getLockedIds() {
+      return ids(true);
+    }
+
+    @Override
+    public void put(String id, int state) {
+      written.put(id, state);
+    }
+
+    @Override
+    public void retain(Collection<String> ids) {
+      stored.keySet().retainAll(ids);
+      written.keySet().retainAll(ids);
+    }
+
+    @Override
+    public void clear() {
+      stored.clear();
+      written.clear();
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    private Set<String> ids(boolean locked) {
+      final Map<String, Integer> states = new HashMap<>();
+      if (loaded) {
+        states.putAll(stored);
+      }
+      states.putAll(written);
+
+      final Set<String> ids = new HashSet<>();
+      for (Map.Entry<String, Integer> entry : states.entrySet()) {
+        final int saved = entry.getValue();
+        final int state = ViewBinder.stateOf(saved);
+        if (locked ? ViewBinder.isLockedState(saved)
+          : state == SwipeLayout.STATE_OPEN || state == SwipeLayout.STATE_OPENING) {
+          ids.add(entry.getKey());
+        }
+      }
+      return ids;
+    }
+  }
+}
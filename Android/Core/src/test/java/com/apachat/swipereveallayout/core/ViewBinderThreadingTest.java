@@ -0,0 +1,203 @@
+package com.apachat.swipereveallayout.core;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.widget.LinearLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class ViewBinderThreadingTest {
+  private static final int ROWS = 20;
+  private static final int THREADS = 4;
+
+  private Activity activity;
+  private ViewBinder binder;
+
+  @Before
+  public void setUp() {
+    activity = TestRows.activity();
+    binder = new ViewBinder();
+  }
+
+  @Test
+  public void bindFromWorkerThreadThrowsByDefault() throws InterruptedException {
+    final SwipeLayout layout = TestRows.create(activity, SwipeLayout.DRAG_EDGE_LEFT);
+
+    assertTrue(runOnWorker(new Runnable() {
+      @Override
+      public void run() {
+        binder.bind(layout, "row");
+      }
+    }) instanceof IllegalStateException);
+  }
+
+  @Test
+  public void saveAndRestoreFromWorkerThreadThrowByDefault() throws InterruptedException {
+    assertTrue(runOnWorker(new Runnable() {
+      @Override
+      public void run() {
+        binder.saveStates(new Bundle());
+      }
+    }) instanceof IllegalStateException);
+
+    assertTrue(runOnWorker(new Runnable() {
+      @Override
+      public void run() {
+        binder.restoreStates(new Bundle());
+      }
+    }) instanceof IllegalStateException);
+  }
+
+  @Test
+  public void countsFromWorkerThreadThrowByDefault() throws InterruptedException {
+    assertTrue(runOnWorker(new Runnable() {
+      @Override
+      public void run() {
+        binder.getOpenCount();
+      }
+    }) instanceof IllegalStateException);
+
+    assertTrue(runOnWorker(new Runnable() {
+      @Override
+      public void run() {
+        binder.getLockedCount();
+      }
+    }) instanceof IllegalStateException);
+  }
+
+  @Test
+  public void queuedCommandsAreAllowedFromWorkerThreads() throws InterruptedException {
+    assertEquals(null, runOnWorker(new Runnable() {
+      @Override
+      public void run() {
+        binder.openLayout("row");
+        binder.lockSwipe("row");
+        binder.closeAll();
+      }
+    }));
+  }
+
+  @Test
+  public void boundRowsMatchLastCommandUnderContention() throws InterruptedException {
+    final LinearLayout root = new LinearLayout(activity);
+    root.setOrientation(LinearLayout.VERTICAL);
+    activity.setContentView(root);
+
+    final List<SwipeLayout> layouts = new ArrayList<>();
+    for (int index = 0; index < ROWS; index++) {
+      final SwipeLayout layout = TestRows.attach(root, SwipeLayout.DRAG_EDGE_LEFT);
+      binder.bind(layout, "row" + index);
+      layouts.add(layout);
+    }
+
+    final AtomicBoolean running = new AtomicBoolean(true);
+    final boolean[] finalOpen = new boolean[ROWS];
+    final boolean[] finalLocked = new boolean[ROWS];
+    final List<Thread> threads = new ArrayList<>();
+
+    for (int t = 0; t < THREADS; t++) {
+      final int thread = t;
+      threads.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          final Random random = new Random(thread);
+
+          while (running.get()) {
+            final int row = thread + THREADS * random.nextInt(ROWS / THREADS);
+            if (random.nextBoolean()) {
+              binder.openLayout("row" + row);
+            } else {
+              binder.closeLayout("row" + row);
+            }
+
+            if (random.nextBoolean()) {
+              binder.lockSwipe("row" + row);
+            } else {
+              binder.unlockSwipe("row" + row);
+            }
+          }
+
+          for (int row = thread; row < ROWS; row += THREADS) {
+            finalOpen[row] = random.nextBoolean();
+            finalLocked[row] = random.nextBoolean();
+
+            if (finalOpen[row]) {
+              binder.openLayout("row" + row);
+            } else {
+              binder.closeLayout("row" + row);
+            }
+
+            if (finalLocked[row]) {
+              binder.lockSwipe("row" + row);
+            } else {
+              binder.unlockSwipe("row" + row);
+            }
+          }
+        }
+      }));
+    }
+
+    for (Thread thread : threads) {
+      thread.start();
+    }
+
+    for (int frame = 0; frame < 30; frame++) {
+      TestRows.frames(1);
+    }
+
+    running.set(false);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    TestRows.frames(60);
+
+    int open = 0;
+    int locked = 0;
+    for (int row = 0; row < ROWS; row++) {
+      final SwipeLayout layout = layouts.get(row);
+      assertEquals("row" + row, finalOpen[row], layout.isOpened());
+      assertEquals("row" + row, !finalOpen[row], layout.isClosed());
+      assertEquals("row" + row, finalLocked[row], layout.isDragLocked());
+
+      open += finalOpen[row] ? 1 : 0;
+      locked += finalLocked[row] ? 1 : 0;
+    }
+
+    assertEquals(open, binder.getOpenCount());
+    assertEquals(locked, binder.getLockedCount());
+  }
+
+  private static Throwable runOnWorker(final Runnable runnable) throws InterruptedException {
+    final AtomicReference<Throwable> thrown = new AtomicReference<>();
+
+    final Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          runnable.run();
+        } catch (Throwable t) {
+          thrown.set(t);
+        }
+      }
+    });
+
+    thread.start();
+    thread.join();
+
+    return thrown.get();
+  }
+}
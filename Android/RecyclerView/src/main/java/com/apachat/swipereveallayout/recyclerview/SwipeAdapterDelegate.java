@@ -0,0 +1,148 @@
+package com.apachat.swipereveallayout.recyclerview;
+
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.apachat.swipereveallayout.core.SwipeLayout;
+import com.apachat.swipereveallayout.core.ViewBinder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class SwipeAdapterDelegate {
+  public static final Object PAYLOAD_SWIPE_STATE = new Object();
+
+  private final ViewBinder binder;
+  private final Map<RecyclerView.ViewHolder, String> boundIds = new HashMap<>();
+
+  public SwipeAdapterDelegate() {
+    this(new ViewBinder());
+  }
+
+  public SwipeAdapterDelegate(ViewBinder binder) {
+    this.binder = binder;
+  }
+
+  public ViewBinder getViewBinder() {
+    return binder;
+  }
+
+  public static String idOf(long stableId) {
+    return Long.toString(stableId);
+  }
+
+  public void onBindViewHolder(RecyclerView.ViewHolder holder, SwipeLayout swipeLayout) {
+    onBindViewHolder(holder, swipeLayout, Collections.emptyList());
+  }
+
+  public void onBindViewHolder(RecyclerView.ViewHolder holder, SwipeLayout swipeLayout, List<Object> payloads) {
+    final String id = requireId(holder);
+
+    if (!payloads.isEmpty() && id.equals(boundIds.get(holder))) {
+      return;
+    }
+
+    bind(holder, swipeLayout, id);
+  }
+
+  public void onViewAttachedToWindow(RecyclerView.ViewHolder holder, SwipeLayout swipeLayout) {
+    if (!boundIds.containsKey(holder) && holder.getItemId() != RecyclerView.NO_ID) {
+      bind(holder, swipeLayout, idOf(holder.getItemId()));
+    }
+  }
+
+  public void onViewDetachedFromWindow(RecyclerView.ViewHolder holder, SwipeLayout swipeLayout) {
+    release(holder, swipeLayout);
+  }
+
+  public void onViewRecycled(RecyclerView.ViewHolder holder, SwipeLayout swipeLayout) {
+    release(holder, swipeLayout);
+  }
+
+  public void openItem(RecyclerView.Adapter<?> adapter, int position) {
+    binder.openLayout(idOf(adapter.getItemId(position)));
+  }
+
+  public void closeItem(RecyclerView.Adapter<?> adapter, int position) {
+    binder.closeLayout(idOf(adapter.getItemId(position)));
+  }
+
+  public static boolean canReuseUpdatedViewHolder(List<Object> payloads) {
+    return payloads.contains(PAYLOAD_SWIPE_STATE);
+  }
+
+  public void dispatchUpdates(DiffUtil.DiffResult result, RecyclerView.Adapter<?> adapter, final OldItemIds oldItemIds) {
+    final List<String> removedIds = new ArrayList<>();
+    final ListUpdateCallback adapterCallback = new AdapterListUpdateCallback(adapter);
+
+    result.dispatchUpdatesTo(new ListUpdateCallback() {
+      @Override
+      public void onInserted(int position, int count) {
+        adapterCallback.onInserted(position, count);
+      }
+
+      @Override
+      public void onRemoved(int position, int count) {
+        for (int offset = 0; offset < count; offset++) {
+          removedIds.add(idOf(oldItemIds.getItemId(position + offset)));
+        }
+        adapterCallback.onRemoved(position, count);
+      }
+
+      @Override
+      public void onMoved(int fromPosition, int toPosition) {
+        adapterCallback.onMoved(fromPosition, toPosition);
+      }
+
+      @Override
+      public void onChanged(int position, int count, Object payload) {
+        adapterCallback.onChanged(position, count, payload);
+      }
+    });
+
+    binder.removeStates(removedIds);
+  }
+
+  public void retainItems(RecyclerView.Adapter<?> adapter) {
+    final int count = adapter.getItemCount();
+    final Set<String> ids = new HashSet<>(count * 2);
+
+    for (int position = 0; position < count; position++) {
+      ids.add(idOf(adapter.getItemId(position)));
+    }
+
+    binder.retainStates(ids);
+  }
+
+  private void bind(RecyclerView.ViewHolder holder, SwipeLayout swipeLayout, String id) {
+    binder.bind(swipeLayout, id);
+    boundIds.put(holder, id);
+  }
+
+  private void release(RecyclerView.ViewHolder holder, SwipeLayout swipeLayout) {
+    if (boundIds.remove(holder) != null) {
+      binder.unbind(swipeLayout);
+    }
+  }
+
+  private static String requireId(RecyclerView.ViewHolder holder) {
+    final long stableId = holder.getItemId();
+
+    if (stableId == RecyclerView.NO_ID) {
+      throw new IllegalStateException("SwipeAdapterDelegate requires an adapter with stable ids");
+    }
+
+    return idOf(stableId);
+  }
+
+  public interface OldItemIds {
+    long getItemId(int oldPosition);
+  }
+}
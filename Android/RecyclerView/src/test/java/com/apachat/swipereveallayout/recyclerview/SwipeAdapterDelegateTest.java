@@ -0,0 +1,309 @@
+package com.apachat.swipereveallayout.recyclerview;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DefaultItemAnimator;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.apachat.swipereveallayout.core.StateChange;
+import com.apachat.swipereveallayout.core.SwipeLayout;
+import com.apachat.swipereveallayout.core.interfaces.StateObserver;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+public class SwipeAdapterDelegateTest {
+  private static final int ROW_HEIGHT = 100;
+  private static final int SECONDARY_WIDTH = 100;
+
+  private RecyclerView recyclerView;
+  private TestAdapter adapter;
+  private SwipeAdapterDelegate delegate;
+
+  @Before
+  public void setUp() {
+    final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+
+    delegate = new SwipeAdapterDelegate();
+    adapter = new TestAdapter(delegate, Arrays.asList(1L, 2L, 3L, 4L));
+
+    recyclerView = new RecyclerView(activity);
+    recyclerView.setLayoutManager(new LinearLayoutManager(activity));
+    recyclerView.setItemAnimator(new DefaultItemAnimator());
+    recyclerView.setAdapter(adapter);
+    activity.setContentView(recyclerView);
+
+    frames(2);
+  }
+
+  @Test
+  public void openItemReusesTheBoundHolder() {
+    final RecyclerView.ViewHolder before = recyclerView.findViewHolderForItemId(2L);
+    assertNotNull(before);
+
+    delegate.openItem(adapter, 1);
+    frames(60);
+
+    final TestHolder after = holder(2L);
+    assertSame(before, after);
+    assertTrue(after.swipeLayout.isOpened());
+    assertEquals(1, delegate.getViewBinder().getOpenCount());
+  }
+
+  @Test
+  public void openItemDoesNotRebindTheRow() {
+    final int binds = adapter.fullBinds;
+
+    delegate.openItem(adapter, 1);
+    frames(60);
+
+    assertEquals(binds, adapter.fullBinds);
+    assertTrue(holder(2L).swipeLayout.isOpened());
+  }
+
+  @Test
+  public void closeItemClosesTheBoundRow() {
+    delegate.openItem(adapter, 0);
+    frames(60);
+
+    delegate.closeItem(adapter, 0);
+    frames(60);
+
+    assertTrue(holder(1L).swipeLayout.isClosed());
+    assertEquals(0, delegate.getViewBinder().getOpenCount());
+  }
+
+  @Test
+  public void stateFollowsStableIdAcrossMoves() {
+    delegate.openItem(adapter, 2);
+    frames(60);
+
+    adapter.submit(Arrays.asList(3L, 1L, 2L, 4L));
+    frames(60);
+
+    assertTrue(holder(3L).swipeLayout.isOpened());
+    assertTrue(holder(1L).swipeLayout.isClosed());
+    assertTrue(holder(2L).swipeLayout.isClosed());
+    assertTrue(holder(4L).swipeLayout.isClosed());
+  }
+
+  @Test
+  public void removedItemsDropTheirState() {
+    delegate.openItem(adapter, 2);
+    frames(60);
+
+    adapter.submit(Arrays.asList(1L, 2L, 4L));
+    frames(60);
+
+    assertEquals(0, delegate.getViewBinder().getOpenCount());
+
+    adapter.submit(Arrays.asList(1L, 2L, 3L, 4L));
+    frames(60);
+
+    assertTrue(holder(3L).swipeLayout.isClosed());
+  }
+
+  @Test
+  public void diffUpdatesCarryStatesInOneBatchedPass() {
+    delegate.openItem(adapter, 2);
+    delegate.getViewBinder().lockSwipe(SwipeAdapterDelegate.idOf(3L));
+    frames(60);
+
+    final List<List<StateChange>> batches = new ArrayList<>();
+    delegate.getViewBinder().addStateObserver(new StateObserver() {
+      @Override
+      public void onStatesChanged(List<StateChange> changes) {
+        batches.add(new ArrayList<>(changes));
+      }
+    });
+
+    final int binds = adapter.fullBinds;
+    adapter.submit(Arrays.asList(3L, 1L, 4L));
+    frames(60);
+
+    assertEquals(binds, adapter.fullBinds);
+    assertEquals(1, batches.size());
+    assertEquals(1, batches.get(0).size());
+    assertEquals(SwipeAdapterDelegate.idOf(2L), batches.get(0).get(0).getId());
+    assertEquals(StateChange.STATE_NONE, batches.get(0).get(0).getNewState());
+
+    assertTrue(holder(3L).swipeLayout.isOpened());
+    assertTrue(holder(3L).swipeLayout.isDragLocked());
+    assertTrue(holder(1L).swipeLayout.isClosed());
+    assertEquals(1, delegate.getViewBinder().getOpenCount());
+    assertEquals(1, delegate.getViewBinder().getLockedCount());
+  }
+
+  @Test
+  public void recycledHolderIsReleased() {
+    final TestHolder holder = holder(1L);
+    delegate.onViewRecycled(holder, holder.swipeLayout);
+
+    delegate.getViewBinder().openLayout(SwipeAdapterDelegate.idOf(1L));
+    frames(60);
+
+    assertTrue(holder.swipeLayout.isClosed());
+  }
+
+  @Test
+  public void swipeStatePayloadKeepsTheCurrentState() {
+    delegate.openItem(adapter, 0);
+    frames(60);
+
+    final TestHolder holder = holder(1L);
+    delegate.onBindViewHolder(holder, holder.swipeLayout,
+      Collections.<Object>singletonList(SwipeAdapterDelegate.PAYLOAD_SWIPE_STATE));
+
+    assertTrue(holder.swipeLayout.isOpened());
+  }
+
+  @Test
+  public void onlySwipeStatePayloadsAllowHolderReuse() {
+    assertTrue(SwipeAdapterDelegate.canReuseUpdatedViewHolder(
+      Collections.<Object>singletonList(SwipeAdapterDelegate.PAYLOAD_SWIPE_STATE)));
+    assertFalse(SwipeAdapterDelegate.canReuseUpdatedViewHolder(Collections.<Object>singletonList("text")));
+    assertFalse(SwipeAdapterDelegate.canReuseUpdatedViewHolder(Collections.emptyList()));
+  }
+
+  private TestHolder holder(long id) {
+    final TestHolder holder = (TestHolder) recyclerView.findViewHolderForItemId(id);
+    assertNotNull(holder);
+    return holder;
+  }
+
+  private static void frames(int count) {
+    for (int i = 0; i < count; i++) {
+      shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(16));
+    }
+  }
+
+  private static final class TestHolder extends RecyclerView.ViewHolder {
+    final SwipeLayout swipeLayout;
+
+    TestHolder(SwipeLayout swipeLayout) {
+      super(swipeLayout);
+      this.swipeLayout = swipeLayout;
+    }
+  }
+
+  private static final class TestAdapter extends RecyclerView.Adapter<TestHolder> {
+    private final SwipeAdapterDelegate delegate;
+    private List<Long> items;
+    int fullBinds;
+
+    TestAdapter(SwipeAdapterDelegate delegate, List<Long> items) {
+      this.delegate = delegate;
+      this.items = new ArrayList<>(items);
+      setHasStableIds(true);
+    }
+
+    void submit(List<Long> newItems) {
+      final List<Long> oldItems = items;
+
+      final DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+        @Override
+        public int getOldListSize() {
+          return oldItems.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+          return newItems.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+          return oldItems.get(oldItemPosition).equals(newItems.get(newItemPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+          return true;
+        }
+      });
+
+      items = new ArrayList<>(newItems);
+      delegate.dispatchUpdates(diff, this, new SwipeAdapterDelegate.OldItemIds() {
+        @Override
+        public long getItemId(int oldPosition) {
+          return oldItems.get(oldPosition);
+        }
+      });
+    }
+
+    @NonNull
+    @Override
+    public TestHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+      final SwipeLayout layout = new SwipeLayout(parent.getContext());
+      layout.addView(new View(parent.getContext()),
+        new ViewGroup.LayoutParams(SECONDARY_WIDTH, ViewGroup.LayoutParams.MATCH_PARENT));
+      layout.addView(new View(parent.getContext()),
+        new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+      layout.setDragEdge(SwipeLayout.DRAG_EDGE_LEFT);
+      layout.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+
+      return new TestHolder(layout);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull TestHolder holder, int position) {
+      onBindViewHolder(holder, position, Collections.emptyList());
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull TestHolder holder, int position, @NonNull List<Object> payloads) {
+      if (payloads.isEmpty()) {
+        fullBinds++;
+      }
+      delegate.onBindViewHolder(holder, holder.swipeLayout, payloads);
+    }
+
+    @Override
+    public void onViewAttachedToWindow(@NonNull TestHolder holder) {
+      delegate.onViewAttachedToWindow(holder, holder.swipeLayout);
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(@NonNull TestHolder holder) {
+      delegate.onViewDetachedFromWindow(holder, holder.swipeLayout);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull TestHolder holder) {
+      delegate.onViewRecycled(holder, holder.swipeLayout);
+    }
+
+    @Override
+    public long getItemId(int position) {
+      return items.get(position);
+    }
+
+    @Override
+    public int getItemCount() {
+      return items.size();
+    }
+  }
+}